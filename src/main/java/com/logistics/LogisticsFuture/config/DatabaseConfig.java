@@ -1,38 +1,121 @@
 package com.logistics.LogisticsFuture.config;
 
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 import java.net.URI;
+import java.time.Duration;
 
+/**
+ * Pool sizing: the pool is what bounds database concurrency, not the request threads. With the default
+ * platform threads Tomcat caps in-flight requests at 200; with virtual threads enabled every request gets
+ * its own thread and simply waits in Hikari for a connection. Keep the pool small (about twice the
+ * database server's cores) and the connection timeout short, so an overloaded instance fails requests
+ * quickly instead of parking thousands of virtual threads behind the pool.
+ * <p>
+ * Read replica: when {@code database.replica.url} is set, transactions marked
+ * {@code @Transactional(readOnly = true)} (including Spring Data's own finder methods called outside a
+ * write transaction) take their connection from a separate replica pool. The connection is fetched lazily,
+ * once the transaction's read-only flag is known. Work inside a read-write transaction stays on the primary,
+ * so a transaction always reads its own writes. Each pool is tuned under {@code database.pool} and
+ * {@code database.replica.pool}.
+ */
 @Configuration
 public class DatabaseConfig {
     @Value("${DATABASE_URL}")
     private String databaseUrl;
 
+    @Value("${database.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${database.ssl-mode:require}")
+    private String sslMode;
+
+    @Value("${database.replica.retry-after:PT30S}")
+    private Duration replicaRetryAfter;
+
+    /**
+     * Applies pending migrations from {@code db/migration} at startup unless {@code database.migrate-on-startup}
+     * is off, for deployments that migrate once in a release step before starting instances. Decided here at
+     * runtime because AOT processing fixes the outcome of {@code spring.flyway.enabled} at build time.
+     */
     @Bean
-    public DataSource dataSource() throws Exception {
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${database.migrate-on-startup:true}") boolean migrateOnStartup) {
+        return flyway -> {
+            if (migrateOnStartup) {
+                flyway.migrate();
+            }
+        };
+    }
+
+    @Bean
+    public DataSource dataSource(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) throws Exception {
         if (databaseUrl == null || databaseUrl.isEmpty()) {
             throw new IllegalStateException("DATABASE_URL environment variable is not set");
         }
 
+        HikariDataSource primary = createPool("primary", databaseUrl, PoolSettings.from(environment, "database.pool", 10));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        if (!replicaUrl.isEmpty()) {
+            HikariDataSource replica = createPool("replica", replicaUrl, PoolSettings.from(environment, "database.replica.pool", 10));
+            // Let a missing replica fail over to the primary at runtime instead of failing startup
+            replica.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            dataSource.setReadOnlyDataSource(new ReplicaFallbackDataSource(replica, primary, replicaRetryAfter));
+        }
+        return dataSource;
+    }
+
+    private HikariDataSource createPool(String name, String url, PoolSettings settings) throws Exception {
         // Parse the Render DATABASE_URL
-        URI dbUri = new URI(databaseUrl);
+        URI dbUri = new URI(url);
 
         String username = dbUri.getUserInfo().split(":")[0];
         String password = dbUri.getUserInfo().split(":")[1];
         String port = dbUri.getPort() == -1 ? "5432" : String.valueOf(dbUri.getPort());
-        String jdbcUrl = "jdbc:postgresql://" + dbUri.getHost() + ":" + port + dbUri.getPath() + "?sslmode=require";
+        String jdbcUrl = "jdbc:postgresql://" + dbUri.getHost() + ":" + port + dbUri.getPath() + "?sslmode=" + sslMode
+                + "&reWriteBatchedInserts=true";
 
         HikariDataSource dataSource = new HikariDataSource();
         dataSource.setJdbcUrl(jdbcUrl);
         dataSource.setUsername(username);
         dataSource.setPassword(password);
         dataSource.setDriverClassName("org.postgresql.Driver");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(settings.maximumSize());
+        dataSource.setMinimumIdle(settings.minimumIdle() < 0 ? settings.maximumSize() : settings.minimumIdle());
+        dataSource.setConnectionTimeout(settings.connectionTimeout().toMillis());
+        dataSource.setIdleTimeout(settings.idleTimeout().toMillis());
+        dataSource.setMaxLifetime(settings.maxLifetime().toMillis());
+        // pgjdbc switches a statement to a named server-side prepared statement after prepareThreshold executions
+        dataSource.addDataSourceProperty("prepareThreshold", settings.prepareThreshold());
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", settings.statementCacheQueries());
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", settings.statementCacheSizeMib());
 
         return dataSource;
     }
+
+    record PoolSettings(int maximumSize, int minimumIdle, Duration connectionTimeout, Duration idleTimeout,
+                        Duration maxLifetime, int prepareThreshold, int statementCacheQueries, int statementCacheSizeMib) {
+        static PoolSettings from(Environment environment, String prefix, int defaultSize) {
+            return new PoolSettings(
+                    environment.getProperty(prefix + ".maximum-size", Integer.class, defaultSize),
+                    environment.getProperty(prefix + ".minimum-idle", Integer.class, -1),
+                    environment.getProperty(prefix + ".connection-timeout", Duration.class, Duration.ofSeconds(30)),
+                    environment.getProperty(prefix + ".idle-timeout", Duration.class, Duration.ofMinutes(10)),
+                    environment.getProperty(prefix + ".max-lifetime", Duration.class, Duration.ofMinutes(30)),
+                    environment.getProperty(prefix + ".prepare-threshold", Integer.class, 5),
+                    environment.getProperty(prefix + ".statement-cache-queries", Integer.class, 256),
+                    environment.getProperty(prefix + ".statement-cache-size-mib", Integer.class, 5));
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.logistics.LogisticsFuture.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Request handling follows {@code spring.threads.virtual.enabled}: when it is on, Spring Boot runs Tomcat
+ * requests on virtual threads. Compare the two modes under load with {@code load.AuthLoadTests}.
+ * <p>
+ * {@code @Scheduled} jobs deliberately stay on a small platform-thread scheduler. The mail outbox sends
+ * through Jakarta Mail, whose {@code SMTPTransport} holds a monitor across socket I/O; on a virtual thread
+ * that pins the carrier for the whole SMTP exchange. Code of our own that runs on request threads guards
+ * shared state with {@code java.util.concurrent} locks rather than {@code synchronized} for the same reason.
+ * <p>
+ * The scheduler has one thread per {@code @Scheduled} job, so a job that blocks never delays another:
+ * <ul>
+ *     <li>{@code MailOutboxDispatcher.dispatch}: blocks on SMTP</li>
+ *     <li>{@code ExpiredTokenReaper.purge}: blocks on batched deletes</li>
+ *     <li>{@code AuthRateLimiter.evictIdle}: in memory</li>
+ *     <li>{@code InMemoryRefreshTokenStore.evictExpired}: in memory, memory store only</li>
+ * </ul>
+ * The memory store's write-behind flush runs on a thread of its own. Add to {@link #SCHEDULED_JOBS} with a job.
+ */
+@Configuration
+@EnableScheduling
+public class ExecutionConfig {
+    static final int SCHEDULED_JOBS = 4;
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(SCHEDULED_JOBS);
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,47 @@
+package com.logistics.LogisticsFuture.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Hands out replica connections, falling back to the primary when the replica cannot provide one.
+ * After a failure the replica is skipped for {@code retryAfter}, so an unreachable replica costs one
+ * connection timeout per window rather than one per request.
+ */
+public class ReplicaFallbackDataSource extends DelegatingDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaFallbackDataSource.class);
+
+    private final DataSource primary;
+    private final long retryAfterNanos;
+    private volatile long replicaDownUntil = System.nanoTime();
+
+    public ReplicaFallbackDataSource(DataSource replica, DataSource primary, Duration retryAfter) {
+        super(replica);
+        this.primary = primary;
+        this.retryAfterNanos = retryAfter.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (System.nanoTime() - replicaDownUntil < 0) {
+            return primary.getConnection();
+        }
+        try {
+            return obtainTargetDataSource().getConnection();
+        } catch (SQLException e) {
+            replicaDownUntil = System.nanoTime() + retryAfterNanos;
+            log.warn("Replica unavailable, reading from the primary for {} ms: {}", retryAfterNanos / 1_000_000, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return System.nanoTime() - replicaDownUntil >= 0;
+    }
+}
@@ -2,9 +2,12 @@ package com.logistics.LogisticsFuture.config;
 
 import com.logistics.LogisticsFuture.utility.CustomLogoutSuccessHandler;
 import com.logistics.LogisticsFuture.utility.JwtAuthenticationFilter;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -20,6 +23,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final Environment environment;
 
 
     @Bean
@@ -27,11 +31,18 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf
                         .ignoringRequestMatchers("/api/logisticsFuture/auth/register","/api/logisticsFuture/auth/login","/api/logisticsFuture/auth/refresh",
-                                "/api/logisticsFuture/auth/reset-password","/api/logisticsFuture/auth/forgot-password","/api/logisticsFuture/auth/logout")
+                                "/api/logisticsFuture/auth/reset-password","/api/logisticsFuture/auth/forgot-password","/api/logisticsFuture/auth/logout",
+                                // Bearer-token authenticated, so not reachable through a browser's ambient credentials
+                                "/api/logisticsFuture/auth/sessions", "/api/logisticsFuture/auth/sessions/*",
+                                "/api/logisticsFuture/users/import")
                 )
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/logisticsFuture/auth/register","/api/logisticsFuture/auth/login","/api/logisticsFuture/auth/refresh",
                                 "/api/logisticsFuture/auth/reset-password","/api/logisticsFuture/auth/forgot-password","/api/logisticsFuture/auth/logout").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Scraped by Prometheus without credentials, but only on the separate management port
+                        .requestMatchers(this::onManagementPort).permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -48,13 +59,21 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // When management shares the application port, Boot aliases local.management.port to local.server.port
+    private boolean onManagementPort(HttpServletRequest request) {
+        Integer managementPort = environment.getProperty("local.management.port", Integer.class);
+        return managementPort != null && request.getLocalPort() == managementPort
+                && !managementPort.equals(environment.getProperty("local.server.port", Integer.class))
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -2,9 +2,14 @@ package com.logistics.LogisticsFuture.controller;
 
 import com.logistics.LogisticsFuture.dto.*;
 import com.logistics.LogisticsFuture.projection.UserMinimalProjection;
+import com.logistics.LogisticsFuture.service.AuthMetrics;
+import com.logistics.LogisticsFuture.service.AuthRateLimiter;
 import com.logistics.LogisticsFuture.service.AuthServiceImplementation;
+import com.logistics.LogisticsFuture.service.RefreshCoalescer;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,41 +18,50 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/logisticsFuture/auth")
 public class AuthController {
     private final AuthServiceImplementation authService;
+    private final AuthRateLimiter rateLimiter;
+    private final AuthMetrics authMetrics;
+    private final RefreshCoalescer refreshCoalescer;
 
 
     @PostMapping("/register")
     public ResponseEntity<UserMinimalProjection> register(@Valid @RequestBody RegisterRequest request) {
-        UserMinimalProjection user = authService.register(request);
+        UserMinimalProjection user = authMetrics.record("register", () -> authService.register(request));
         return ResponseEntity.ok(user);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest servletRequest) {
+        rateLimiter.checkLogin(request.getEmail(), servletRequest.getRemoteAddr());
+        AuthResponse response = authMetrics.record("login", () -> authService.login(request));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/refresh")
-    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
-        AuthResponse response = authService.refresh(request);
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request, HttpServletRequest servletRequest) {
+        rateLimiter.checkRefresh(servletRequest.getRemoteAddr());
+        AuthResponse response = authMetrics.record("refresh",
+                () -> refreshCoalescer.refresh(request.getRefreshToken(), () -> authService.refresh(request)));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<MessageResponse> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
-        authService.forgotPassword(request);
+    public ResponseEntity<MessageResponse> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request, HttpServletRequest servletRequest) {
+        rateLimiter.checkForgotPassword(request.getEmail(), servletRequest.getRemoteAddr());
+        authMetrics.record("forgotPassword", () -> authService.forgotPassword(request));
         return ResponseEntity.ok(new MessageResponse("If the email exists, a reset link has been sent"));
     }
 
     @PostMapping("/reset-password")
     public ResponseEntity<MessageResponse> resetPassword(@Valid @RequestBody ResetPasswordRequest request) {
-        authService.resetPassword(request);
+        authMetrics.record("resetPassword", () -> authService.resetPassword(request));
         return ResponseEntity.ok(new MessageResponse("Password reset successfully"));
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<MessageResponse> logout(@Valid @RequestBody RefreshTokenRequest request) {
-        authService.logout(request);
+    public ResponseEntity<MessageResponse> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                                  @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authMetrics.record("logout", () -> authService.logout(request, accessToken));
         return ResponseEntity.ok(new MessageResponse("Logged out successfully"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.logistics.LogisticsFuture.controller;
+
+import com.logistics.LogisticsFuture.utility.JwksDocument;
+import com.logistics.LogisticsFuture.utility.JwtTokenProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+    private final JwtTokenProvider jwtTokenProvider;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtTokenProvider jwtTokenProvider, @Value("${jwt.jwks.max-age:PT5M}") Duration maxAge) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    // Served from bytes serialized at startup; consumers revalidate with If-None-Match and get a 304
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> jwks(WebRequest request) {
+        JwksDocument jwks = jwtTokenProvider.jwks();
+        if (request.checkNotModified(jwks.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(jwks.etag())
+                .cacheControl(cacheControl)
+                .body(jwks.json());
+    }
+}
@@ -0,0 +1,43 @@
+package com.logistics.LogisticsFuture.controller;
+
+import com.logistics.LogisticsFuture.dto.MessageResponse;
+import com.logistics.LogisticsFuture.dto.SessionResponse;
+import com.logistics.LogisticsFuture.service.AuthMetrics;
+import com.logistics.LogisticsFuture.service.AuthServiceImplementation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+// Sessions of the user the access token belongs to; the principal is the user id set by JwtAuthenticationFilter
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/logisticsFuture/auth/sessions")
+public class SessionController {
+    private final AuthServiceImplementation authService;
+    private final AuthMetrics authMetrics;
+
+    @GetMapping
+    public ResponseEntity<List<SessionResponse>> sessions(@AuthenticationPrincipal String userId) {
+        return ResponseEntity.ok(authMetrics.record("listSessions", () -> authService.sessions(UUID.fromString(userId))));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<MessageResponse> revokeSession(@AuthenticationPrincipal String userId, @PathVariable UUID sessionId) {
+        boolean revoked = authMetrics.record("revokeSession", () -> authService.revokeSession(UUID.fromString(userId), sessionId));
+        if (!revoked) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("Session not found"));
+        }
+        return ResponseEntity.ok(new MessageResponse("Session revoked"));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<MessageResponse> revokeAllSessions(@AuthenticationPrincipal String userId) {
+        int revoked = authMetrics.record("revokeAllSessions", () -> authService.revokeAllSessions(UUID.fromString(userId)));
+        return ResponseEntity.ok(new MessageResponse("Revoked " + revoked + " sessions"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.logistics.LogisticsFuture.controller;
+
+import com.logistics.LogisticsFuture.dto.MessageResponse;
+import com.logistics.LogisticsFuture.service.UserImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Bulk account creation for operators. Users carry no roles, so a valid access token is not enough: the
+ * endpoint answers 404 unless {@code user-import.enabled} is set, and every call must also present the
+ * operator key from {@code user-import.api-key} in the {@value #API_KEY_HEADER} header.
+ * <p>
+ * The flag is checked at runtime rather than with {@code @ConditionalOnProperty}, which AOT processing would
+ * decide once at image build time.
+ */
+@RestController
+@RequestMapping("/api/logisticsFuture/users")
+public class UserImportController {
+    static final String API_KEY_HEADER = "X-Import-Key";
+
+    private final UserImportService userImportService;
+    private final boolean enabled;
+    private final byte[] apiKey;
+
+    public UserImportController(UserImportService userImportService,
+                                @Value("${user-import.enabled:false}") boolean enabled,
+                                @Value("${user-import.api-key:}") String apiKey) {
+        if (enabled && apiKey.length() < 32) {
+            throw new IllegalStateException("user-import.api-key must be at least 32 characters when user-import.enabled is set");
+        }
+        this.userImportService = userImportService;
+        this.enabled = enabled;
+        this.apiKey = apiKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Body is a JSON array or newline-delimited JSON of register requests, read as a stream
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importUsers(@RequestHeader(value = API_KEY_HEADER, required = false) String key,
+                                         InputStream body) throws IOException {
+        if (!enabled) {
+            return ResponseEntity.notFound().build();
+        }
+        if (key == null || !MessageDigest.isEqual(apiKey, key.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new MessageResponse("Operator key required"));
+        }
+        return ResponseEntity.ok(userImportService.importUsers(body));
+    }
+}
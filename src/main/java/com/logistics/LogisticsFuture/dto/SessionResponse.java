@@ -0,0 +1,20 @@
+package com.logistics.LogisticsFuture.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionResponse {
+    private UUID id;
+    // Login time, read from the time-ordered session id; null for sessions created before ids were UUIDv7
+    private Instant createdAt;
+    private Instant expiresAt;
+}
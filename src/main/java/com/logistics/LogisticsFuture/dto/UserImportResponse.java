@@ -0,0 +1,18 @@
+package com.logistics.LogisticsFuture.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+    private int imported;
+    private int rejected;
+    private List<UserImportResult> results;
+}
@@ -0,0 +1,22 @@
+package com.logistics.LogisticsFuture.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResult {
+    public enum Status { IMPORTED, DUPLICATE, INVALID, FAILED }
+
+    private int row;
+    private String email;
+    private Status status;
+    private UUID userId;
+    private String message;
+}
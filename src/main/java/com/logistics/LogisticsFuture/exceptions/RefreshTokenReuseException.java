@@ -0,0 +1,10 @@
+package com.logistics.LogisticsFuture.exceptions;
+
+/**
+ * Thrown when a refresh token that was already rotated is presented again.
+ */
+public class RefreshTokenReuseException extends RuntimeException {
+    public RefreshTokenReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.logistics.LogisticsFuture.exceptions;
+
+/**
+ * Thrown when a bounded internal resource is saturated and the request should be retried later.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.logistics.LogisticsFuture.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a caller has used up its request budget for an endpoint.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
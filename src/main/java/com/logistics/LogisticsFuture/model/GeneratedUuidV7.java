@@ -0,0 +1,18 @@
+package com.logistics.LogisticsFuture.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns a time-ordered {@link com.logistics.LogisticsFuture.utility.UuidV7} to a {@code UUID} id on insert.
+ * Used instead of {@code @GeneratedValue}, whose UUID strategy produces random version 4 ids.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface GeneratedUuidV7 {
+}
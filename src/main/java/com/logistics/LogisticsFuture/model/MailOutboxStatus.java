@@ -0,0 +1,7 @@
+package com.logistics.LogisticsFuture.model;
+
+public enum MailOutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
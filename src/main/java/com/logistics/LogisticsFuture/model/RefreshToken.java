@@ -14,17 +14,23 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash"))
 public class RefreshToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedUuidV7
     private UUID id;
 
     @Column(nullable = false)
     private UUID userId;
 
-    @Column(nullable = false)
-    private String token;
+    // SHA-256 of the refresh JWT; the token itself is never stored
+    @Column(name = "token_hash", nullable = false, length = 32)
+    private byte[] tokenHash;
+
+    // Digest of the token this one replaced, kept so a replay of an already rotated token can be recognised
+    @Column(name = "previous_token_hash", length = 32)
+    private byte[] previousTokenHash;
 
     @Column(nullable = false)
     private Instant expiresAt;
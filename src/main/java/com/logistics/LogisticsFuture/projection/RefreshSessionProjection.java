@@ -0,0 +1,9 @@
+package com.logistics.LogisticsFuture.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface RefreshSessionProjection {
+    UUID getId();
+    Instant getExpiresAt();
+}
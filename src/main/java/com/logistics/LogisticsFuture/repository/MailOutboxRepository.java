@@ -0,0 +1,29 @@
+package com.logistics.LogisticsFuture.repository;
+
+import com.logistics.LogisticsFuture.model.MailOutboxMessage;
+import com.logistics.LogisticsFuture.model.MailOutboxStatus;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutboxMessage, UUID> {
+    // SKIP LOCKED lets several instances drain the outbox without handing out the same row twice
+    @Query(value = "SELECT * FROM mail_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MailOutboxMessage> lockDueBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    long countByStatus(MailOutboxStatus status);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM mail_outbox WHERE id IN " +
+            "(SELECT id FROM mail_outbox WHERE status IN ('SENT', 'DEAD') AND created_at < :cutoff " +
+            "LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteFinishedBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
@@ -1,7 +1,11 @@
 package com.logistics.LogisticsFuture.repository;
 
 import com.logistics.LogisticsFuture.model.PasswordResetToken;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -9,4 +13,10 @@ import java.util.UUID;
 
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, UUID> {
     Optional<PasswordResetToken> findByTokenAndExpiresAtAfterAndUsedFalse(String token, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM password_reset_tokens WHERE id IN " +
+            "(SELECT id FROM password_reset_tokens WHERE used OR expires_at < :now LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteUsedOrExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
 }
@@ -1,19 +1,68 @@
 package com.logistics.LogisticsFuture.repository;
 
 import com.logistics.LogisticsFuture.model.RefreshToken;
+import com.logistics.LogisticsFuture.projection.RefreshSessionProjection;
+import com.logistics.LogisticsFuture.projection.UserRefreshProjection;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
-    Optional<RefreshToken> findByTokenAndExpiresAtAfter(String token, Instant now);
+    Optional<RefreshToken> findByTokenHashAndExpiresAtAfter(byte[] tokenHash, Instant now);
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.token = :token")
-    void deleteByToken(@Param("token") String token);
+    @Query("DELETE FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash AND rt.expiresAt > :now")
+    int deleteLiveByTokenHash(@Param("tokenHash") byte[] tokenHash, @Param("now") Instant now);
 
+    /**
+     * Swaps a live refresh token for its successor and returns the owning user in a single round trip.
+     * Empty when the token is unknown, expired or was already rotated. Only the token being replaced is
+     * kept, in previous_token_hash; older tokens of the session are forgotten.
+     */
+    @Query(value = "UPDATE refresh_tokens rt SET token_hash = :newTokenHash, previous_token_hash = rt.token_hash, expires_at = :expiresAt " +
+            "FROM users u WHERE rt.token_hash = :tokenHash AND rt.expires_at > :now AND u.user_id = rt.user_id " +
+            "RETURNING rt.user_id AS \"userId\", u.email AS \"email\"", nativeQuery = true)
+    Optional<UserRefreshProjection> rotate(@Param("tokenHash") byte[] tokenHash,
+                                           @Param("newTokenHash") byte[] newTokenHash,
+                                           @Param("expiresAt") Instant expiresAt,
+                                           @Param("now") Instant now);
+
+    // A replayed, already rotated token means it leaked: drop the session it belongs to. Only matches the
+    // token rotated away last; a token from further back in the chain no longer points at its session
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.previousTokenHash = :tokenHash")
+    int deleteByPreviousTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    List<RefreshSessionProjection> findByUserIdAndExpiresAtAfterOrderByIdAsc(UUID userId, Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id = :id AND rt.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    // One set-based statement on idx_refresh_tokens_user_id, however many devices the user has
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Deletes all but the newest {@code keep} live sessions of a user. Ids are UUIDv7, so id order is
+     * login order (rows from before UUIDv7 ids sort arbitrarily among themselves).
+     */
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE user_id = :userId AND id NOT IN " +
+            "(SELECT id FROM refresh_tokens WHERE user_id = :userId AND expires_at > :now ORDER BY id DESC LIMIT :keep)", nativeQuery = true)
+    int deleteAllButNewest(@Param("userId") UUID userId, @Param("keep") int keep, @Param("now") Instant now);
+
+    // Bounded batch in its own short transaction; SKIP LOCKED steps around rows a request is rotating
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN " +
+            "(SELECT id FROM refresh_tokens WHERE expires_at < :now LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
 }
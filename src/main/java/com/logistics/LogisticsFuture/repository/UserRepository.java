@@ -3,21 +3,35 @@ package com.logistics.LogisticsFuture.repository;
 import com.logistics.LogisticsFuture.model.User;
 import com.logistics.LogisticsFuture.projection.UserAuthProjection;
 import com.logistics.LogisticsFuture.projection.UserMinimalProjection;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.time.Instant;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     <T> Optional<T> findByEmail(String email, Class<T> type);
-    @Query("SELECT u FROM User u JOIN RefreshToken rt ON u.userId = rt.userId WHERE rt.token = :token AND rt.expiresAt > :now")
-    <T> Optional<T> findByRefreshToken(String token, Instant now, Class<T> type);
 
     @Query("SELECT u FROM User u JOIN PasswordResetToken prt ON u.userId = prt.userId WHERE prt.token = :token AND prt.expiresAt > :now AND prt.used = false")
     <T> Optional<T> findByResetToken(String token, Instant now, Class<T> type);
     <T> Optional<T> findByUserId(UUID userId, Class<T> type);
 
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.phoneNumber FROM User u WHERE u.phoneNumber IN :phoneNumbers")
+    List<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    // Compare-and-set on the old hash so a background rehash never overwrites a concurrent password reset
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.userId = :userId AND u.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("userId") UUID userId, @Param("oldPassword") String oldPassword, @Param("newPassword") String newPassword);
 
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.logistics.LogisticsFuture.service;
+
+public enum AuditEventType {
+    REGISTERED,
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    TOKEN_REFRESHED,
+    TOKEN_REFRESH_FAILED,
+    REFRESH_TOKEN_REUSED,
+    PASSWORD_RESET_REQUESTED,
+    PASSWORD_RESET,
+    PASSWORD_RESET_FAILED,
+    LOGGED_OUT,
+    LOGOUT_FAILED,
+    SESSION_REVOKED,
+    ALL_SESSIONS_REVOKED,
+    SESSIONS_EVICTED
+}
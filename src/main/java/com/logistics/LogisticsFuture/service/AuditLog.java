@@ -0,0 +1,326 @@
+package com.logistics.LogisticsFuture.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Audit trail of authentication outcomes written as JSON lines to {@code audit.directory/audit.log}.
+ * <p>
+ * Request threads publish fixed-shape events into a preallocated ring of mutable slots: claiming a slot
+ * is one CAS, filling it copies a few references and publishing it is one volatile write, so recording
+ * never waits on I/O. A single writer thread drains published slots in batches, writes them through a
+ * buffered writer and flushes once per batch, rolling the file at {@code audit.max-file-size} and keeping
+ * {@code audit.max-files} rolled files. When the ring is full {@code audit.full-policy} decides: {@code drop}
+ * discards the event and counts it in {@code audit.events.dropped}, {@code block} makes the caller wait
+ * for space.
+ */
+@Component
+public class AuditLog {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final DateTimeFormatter ROLLED_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    public enum FullPolicy { DROP, BLOCK }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Path file;
+    private final FullPolicy fullPolicy;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final int batchSize;
+
+    private final Slot[] slots;
+    private final int mask;
+    // Highest sequence claimed by a producer
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // Highest sequence written by the consumer; slots up to it may be reused
+    private volatile long consumed = -1;
+    private volatile boolean running;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private Thread writerThread;
+    private BufferedWriter writer;
+    private long fileSize;
+
+    public AuditLog(MeterRegistry meterRegistry,
+                    @Value("${audit.enabled:true}") boolean enabled,
+                    @Value("${audit.directory:logs/audit}") String directory,
+                    @Value("${audit.buffer-size:8192}") int bufferSize,
+                    @Value("${audit.full-policy:drop}") String fullPolicy,
+                    @Value("${audit.max-file-size:10MB}") DataSize maxFileSize,
+                    @Value("${audit.max-files:10}") int maxFiles) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.file = this.directory.resolve("audit.log");
+        this.fullPolicy = FullPolicy.valueOf(fullPolicy.toUpperCase());
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxFiles = maxFiles;
+
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) * 2 - 1);
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.batchSize = Math.min(capacity, 512);
+
+        written = Counter.builder("audit.events.written").register(meterRegistry);
+        dropped = Counter.builder("audit.events.dropped").register(meterRegistry);
+        failed = Counter.builder("audit.events.failed").register(meterRegistry);
+        Gauge.builder("audit.buffer.used", this, audit -> audit.claimed.get() - audit.consumed).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public void record(AuditEventType type, UUID userId, String email) {
+        record(type, userId, email, null);
+    }
+
+    public void record(AuditEventType type, UUID userId, String email, String detail) {
+        if (!enabled) {
+            return;
+        }
+        long sequence;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - consumed > slots.length) {
+                if (fullPolicy == FullPolicy.DROP || !running) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+                continue;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                sequence = next;
+                break;
+            }
+        }
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.timestamp = System.currentTimeMillis();
+        slot.type = type;
+        slot.userId = userId;
+        slot.email = email;
+        slot.detail = detail;
+        slot.sequence = sequence;
+    }
+
+    public long droppedCount() {
+        return (long) dropped.count();
+    }
+
+    public long writtenCount() {
+        return (long) written.count();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            openWriter();
+        } catch (IOException e) {
+            log.error("Cannot open audit log {}, audit events will be dropped: {}", file, e.getMessage());
+        }
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            int drained = drainBatch(line);
+            if (drained == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // Anything published before close() was called has been drained by the last pass
+        closeWriter();
+    }
+
+    private int drainBatch(StringBuilder line) {
+        long next = consumed + 1;
+        int count = 0;
+        while (count < batchSize) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.sequence != next) {
+                break;
+            }
+            line.setLength(0);
+            appendJson(line, slot);
+            slot.userId = null;
+            slot.email = null;
+            slot.detail = null;
+            write(line);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            flush();
+            consumed = next - 1;
+            written.increment(count);
+        }
+        return count;
+    }
+
+    private void write(StringBuilder line) {
+        if (writer == null) {
+            failed.increment();
+            return;
+        }
+        try {
+            if (fileSize >= maxFileSize) {
+                roll();
+            }
+            writer.append(line);
+            fileSize += line.length();
+        } catch (IOException e) {
+            failed.increment();
+            log.warn("Failed to write audit event: {}", e.getMessage());
+        }
+    }
+
+    private void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("Failed to flush audit log: {}", e.getMessage());
+        }
+    }
+
+    private void openWriter() throws IOException {
+        Files.createDirectories(directory);
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileSize = Files.size(file);
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close audit log: {}", e.getMessage());
+        }
+        writer = null;
+    }
+
+    private void roll() throws IOException {
+        writer.close();
+        writer = null;
+        try {
+            // The sequence keeps names unique when several rolls happen within one millisecond
+            String rolledName = "audit-" + ROLLED_SUFFIX.format(Instant.now()) + "-" + consumed + ".log";
+            Files.move(file, directory.resolve(rolledName), StandardCopyOption.ATOMIC_MOVE);
+            try (Stream<Path> files = Files.list(directory)) {
+                List<Path> rolled = files
+                        .filter(path -> path.getFileName().toString().startsWith("audit-"))
+                        .sorted()
+                        .toList();
+                for (int i = 0; i < rolled.size() - maxFiles; i++) {
+                    Files.deleteIfExists(rolled.get(i));
+                }
+            }
+        } finally {
+            openWriter();
+        }
+    }
+
+    private static void appendJson(StringBuilder line, Slot slot) {
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(slot.timestamp))
+                .append("\",\"event\":\"").append(slot.type.name()).append('"');
+        if (slot.userId != null) {
+            line.append(",\"userId\":\"").append(slot.userId).append('"');
+        }
+        appendField(line, "email", slot.email);
+        appendField(line, "detail", slot.detail);
+        line.append("}\n");
+    }
+
+    private static void appendField(StringBuilder line, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    // Written by one producer, then published by the volatile write of sequence; read by the writer thread
+    private static final class Slot {
+        volatile long sequence = -1;
+        long timestamp;
+        AuditEventType type;
+        UUID userId;
+        String email;
+        String detail;
+    }
+}
@@ -0,0 +1,64 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.exceptions.RefreshTokenReuseException;
+import com.logistics.LogisticsFuture.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Times auth operations as {@code auth.operation} tagged with the operation and its outcome:
+ * {@code success}, {@code invalid} (bad credentials, token or input), {@code reuse} (replayed refresh
+ * token), {@code busy} (hashing pool saturated) or {@code error}. The service wraps most failures in a
+ * generic {@link RuntimeException}, so the outcome is taken from the first recognised cause.
+ */
+@Component
+public class AuthMetrics {
+    private final MeterRegistry meterRegistry;
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String operation, Supplier<T> body) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = body.get();
+            outcome = "success";
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("auth.operation")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    public void record(String operation, Runnable body) {
+        record(operation, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    static String outcome(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RefreshTokenReuseException) {
+                return "reuse";
+            }
+            if (cause instanceof ServiceBusyException) {
+                return "busy";
+            }
+            if (cause instanceof IllegalArgumentException) {
+                return "invalid";
+            }
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,96 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.exceptions.TooManyRequestsException;
+import com.logistics.LogisticsFuture.utility.RequestThrottle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-endpoint request budgets for the unauthenticated auth endpoints, keyed by client IP and, where
+ * the request names an account, by email. Checked by the controller before any database or BCrypt
+ * work, so a flood of attempts against one account or from one address costs a map lookup each.
+ * Limits are configured under {@code throttle.<endpoint>}; a limit of 0 turns that check off.
+ */
+@Component
+public class AuthRateLimiter {
+    private final Check loginByEmail;
+    private final Check loginByIp;
+    private final Check forgotPasswordByEmail;
+    private final Check forgotPasswordByIp;
+    private final Check refreshByIp;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${throttle.max-keys:100000}") int maxKeys,
+                           @Value("${throttle.login.per-email:5}") int loginPerEmail,
+                           @Value("${throttle.login.per-ip:50}") int loginPerIp,
+                           @Value("${throttle.login.period:PT1M}") Duration loginPeriod,
+                           @Value("${throttle.forgot-password.per-email:3}") int forgotPasswordPerEmail,
+                           @Value("${throttle.forgot-password.per-ip:20}") int forgotPasswordPerIp,
+                           @Value("${throttle.forgot-password.period:PT15M}") Duration forgotPasswordPeriod,
+                           @Value("${throttle.refresh.per-ip:60}") int refreshPerIp,
+                           @Value("${throttle.refresh.period:PT1M}") Duration refreshPeriod) {
+        loginByEmail = new Check(meterRegistry, "login", "email", loginPerEmail, loginPeriod, maxKeys);
+        loginByIp = new Check(meterRegistry, "login", "ip", loginPerIp, loginPeriod, maxKeys);
+        forgotPasswordByEmail = new Check(meterRegistry, "forgot-password", "email", forgotPasswordPerEmail, forgotPasswordPeriod, maxKeys);
+        forgotPasswordByIp = new Check(meterRegistry, "forgot-password", "ip", forgotPasswordPerIp, forgotPasswordPeriod, maxKeys);
+        refreshByIp = new Check(meterRegistry, "refresh", "ip", refreshPerIp, refreshPeriod, maxKeys);
+    }
+
+    public void checkLogin(String email, String clientIp) {
+        loginByIp.acquire(clientIp);
+        loginByEmail.acquire(normalize(email));
+    }
+
+    public void checkForgotPassword(String email, String clientIp) {
+        forgotPasswordByIp.acquire(clientIp);
+        forgotPasswordByEmail.acquire(normalize(email));
+    }
+
+    public void checkRefresh(String clientIp) {
+        refreshByIp.acquire(clientIp);
+    }
+
+    @Scheduled(fixedDelayString = "${throttle.eviction-interval:PT1M}")
+    public void evictIdle() {
+        for (Check check : List.of(loginByEmail, loginByIp, forgotPasswordByEmail, forgotPasswordByIp, refreshByIp)) {
+            check.throttle.evictIdle();
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Check {
+        private final RequestThrottle throttle;
+        private final Counter rejected;
+
+        Check(MeterRegistry meterRegistry, String endpoint, String key, int limit, Duration period, int maxKeys) {
+            this.throttle = new RequestThrottle(limit, period, maxKeys);
+            this.rejected = Counter.builder("auth.throttle.rejected")
+                    .tag("endpoint", endpoint)
+                    .tag("key", key)
+                    .register(meterRegistry);
+            Gauge.builder("auth.throttle.keys", throttle, RequestThrottle::size)
+                    .tag("endpoint", endpoint)
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+
+        void acquire(String key) {
+            Duration retryAfter = throttle.tryAcquire(key);
+            if (!retryAfter.isZero()) {
+                rejected.increment();
+                throw new TooManyRequestsException("Too many requests, please try again later", retryAfter);
+            }
+        }
+    }
+}
@@ -2,36 +2,48 @@ package com.logistics.LogisticsFuture.service;
 
 
 import com.logistics.LogisticsFuture.dto.*;
-import com.logistics.LogisticsFuture.model.PasswordResetToken;
-import com.logistics.LogisticsFuture.model.RefreshToken;
+import com.logistics.LogisticsFuture.exceptions.RefreshTokenReuseException;
+import com.logistics.LogisticsFuture.exceptions.ServiceBusyException;
 import com.logistics.LogisticsFuture.model.User;
 import com.logistics.LogisticsFuture.projection.UserAuthProjection;
 import com.logistics.LogisticsFuture.projection.UserMinimalProjection;
 import com.logistics.LogisticsFuture.projection.UserRefreshProjection;
-import com.logistics.LogisticsFuture.repository.PasswordResetTokenRepository;
-import com.logistics.LogisticsFuture.repository.RefreshTokenRepository;
 import com.logistics.LogisticsFuture.repository.UserRepository;
+import com.logistics.LogisticsFuture.utility.AccessTokenDenylist;
 import com.logistics.LogisticsFuture.utility.JwtTokenProvider;
+import com.logistics.LogisticsFuture.utility.TokenClaims;
+import com.logistics.LogisticsFuture.utility.TokenDigests;
+import com.logistics.LogisticsFuture.utility.UuidV7;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class AuthServiceImplementation {
+    private static final Logger log = LoggerFactory.getLogger(AuthServiceImplementation.class);
+
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final PasswordResetTokenRepository passwordResetTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenStore refreshTokenStore;
+    private final PasswordResetTokens passwordResetTokens;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
-    private final JavaMailSender mailSender;
+    private final MailOutboxService mailOutboxService;
+    private final AuditLog auditLog;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final UserCache userCache;
+
+    // Logging in on one more device than this signs out the device that logged in longest ago; 0 for no limit
+    @Value("${auth.sessions.max-per-user:5}")
+    private int maxSessionsPerUser;
 
     public UserMinimalProjection register(RegisterRequest request) {
         try {
@@ -39,7 +51,7 @@ public class AuthServiceImplementation {
                 throw new IllegalArgumentException("Passwords do not match");
             }
 
-            Optional<UserAuthProjection> existingUserOpt = userRepository.findByEmail(request.getEmail(), UserAuthProjection.class);
+            Optional<UserAuthProjection> existingUserOpt = userCache.findByEmail(request.getEmail());
             if (existingUserOpt.isPresent()) {
                 throw new IllegalArgumentException("Email already exists");
             }
@@ -49,67 +61,107 @@ public class AuthServiceImplementation {
             user.setLastName(request.getLastName());
             user.setEmail(request.getEmail());
             user.setPhoneNumber(request.getPhoneNumber());
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
             user.setTermsAgreed(request.isTermsAgreed());
             user.setMarketingAgreed(request.isMarketingAgreed());
 
             userRepository.save(user);
-            System.out.println("New user registered: " + user.getEmail());
+            userCache.evict(user.getUserId(), user.getEmail());
+            auditLog.record(AuditEventType.REGISTERED, user.getUserId(), user.getEmail());
 
             return userRepository.findByUserId(user.getUserId(), UserMinimalProjection.class)
                     .orElseThrow(() -> new IllegalStateException("User not found after save"));
+        } catch (ServiceBusyException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Registration failed", e);
         } catch (Exception e) {
-            System.err.println("Error during registration: " + e.getMessage());
+            log.error("Error during registration", e);
             throw new RuntimeException("Registration failed", e);
         }
     }
 
     public AuthResponse login(LoginRequest request) {
         try {
-            Optional<UserAuthProjection> userOpt = userRepository.findByEmail(request.getEmail(), UserAuthProjection.class);
-            if (userOpt.isEmpty() || !passwordEncoder.matches(request.getPassword(), userOpt.get().getPassword())) {
+            Optional<UserAuthProjection> userOpt = userCache.findByEmail(request.getEmail());
+            if (userOpt.isEmpty() || !passwordHashingService.matches(request.getPassword(), userOpt.get().getPassword())) {
                 throw new IllegalArgumentException("Invalid credentials");
             }
 
             UserAuthProjection user = userOpt.get();
+            if (passwordHashingService.needsUpgrade(user.getPassword())) {
+                String storedPassword = user.getPassword();
+                passwordHashingService.rehashInBackground(request.getPassword(), rehashed -> {
+                    if (userRepository.updatePasswordIfUnchanged(user.getUserId(), storedPassword, rehashed) > 0) {
+                        userCache.evict(user.getUserId(), user.getEmail());
+                    }
+                });
+            }
             String jwt = jwtTokenProvider.generateToken(user.getUserId(), user.getEmail());
             String refreshToken = jwtTokenProvider.generateRefreshToken(user.getUserId());
 
-            RefreshToken tokenEntity = new RefreshToken();
-            tokenEntity.setUserId(user.getUserId());
-            tokenEntity.setToken(refreshToken);
-            tokenEntity.setExpiresAt(Instant.now().plusMillis(604800000));
-            refreshTokenRepository.save(tokenEntity);
+            Instant now = Instant.now();
+            refreshTokenStore.create(user.getUserId(), user.getEmail(), TokenDigests.sha256(refreshToken),
+                    now.plusMillis(604800000));
+            auditLog.record(AuditEventType.LOGIN_SUCCEEDED, user.getUserId(), user.getEmail());
+            if (maxSessionsPerUser > 0) {
+                int evicted = refreshTokenStore.evictOldest(user.getUserId(), maxSessionsPerUser, now);
+                if (evicted > 0) {
+                    auditLog.record(AuditEventType.SESSIONS_EVICTED, user.getUserId(), user.getEmail(),
+                            evicted + " over the limit of " + maxSessionsPerUser);
+                }
+            }
             AuthResponse response = new AuthResponse();
             response.setToken(jwt);
             response.setRefreshToken(refreshToken);
             return response;
+        } catch (ServiceBusyException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            auditLog.record(AuditEventType.LOGIN_FAILED, null, request.getEmail(), e.getMessage());
+            throw new RuntimeException("Login failed", e);
         } catch (Exception e) {
-            System.err.println("Error during login: " + e.getMessage());
+            log.error("Error during login", e);
             throw new RuntimeException("Login failed", e);
         }
     }
 
+    @Transactional(dontRollbackOn = RefreshTokenReuseException.class)
     public AuthResponse refresh(RefreshTokenRequest request) {
         try {
-            RefreshToken token = refreshTokenRepository.findByTokenAndExpiresAtAfter(request.getRefreshToken(), Instant.now())
+            // Tokens minted before the type claim existed have none, so only access tokens are turned away here
+            TokenClaims claims = jwtTokenProvider.verify(request.getRefreshToken())
+                    .filter(verified -> !verified.isAccessToken())
                     .orElseThrow(() -> new IllegalArgumentException("Invalid or expired refresh token"));
 
-            UserRefreshProjection user = userRepository.findByRefreshToken(request.getRefreshToken(), Instant.now(), UserRefreshProjection.class)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found for refresh token"));
+            byte[] tokenHash = TokenDigests.sha256(request.getRefreshToken());
+            String newRefreshToken = jwtTokenProvider.generateRefreshToken(claims.userId());
+            Instant now = Instant.now();
 
-            String newJwt = jwtTokenProvider.generateToken(user.getUserId(), user.getEmail());
-            String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getUserId());
+            Optional<UserRefreshProjection> rotated = refreshTokenStore.rotate(
+                    tokenHash, TokenDigests.sha256(newRefreshToken), now.plusMillis(604800000), now);
+            if (rotated.isEmpty()) {
+                if (refreshTokenStore.revokeRotatedFrom(tokenHash)) {
+                    throw new RefreshTokenReuseException("Refresh token was already used, session revoked");
+                }
+                throw new IllegalArgumentException("Invalid or expired refresh token");
+            }
 
-            token.setToken(newRefreshToken);
-            token.setExpiresAt(Instant.now().plusMillis(604800000));
-            refreshTokenRepository.save(token);
+            UserRefreshProjection user = rotated.get();
+            auditLog.record(AuditEventType.TOKEN_REFRESHED, user.getUserId(), user.getEmail());
+            String newJwt = jwtTokenProvider.generateToken(user.getUserId(), user.getEmail());
             AuthResponse response = new AuthResponse();
             response.setToken(newJwt);
             response.setRefreshToken(newRefreshToken);
             return response;
+        } catch (RefreshTokenReuseException e) {
+            auditLog.record(AuditEventType.REFRESH_TOKEN_REUSED, null, null, e.getMessage());
+            throw e;
+        } catch (IllegalArgumentException e) {
+            auditLog.record(AuditEventType.TOKEN_REFRESH_FAILED, null, null, e.getMessage());
+            throw new RuntimeException("Token refresh failed", e);
         } catch (Exception e) {
-            System.err.println("Error during token refresh: " + e.getMessage());
+            log.error("Error during token refresh", e);
             throw new RuntimeException("Token refresh failed", e);
         }
     }
@@ -117,31 +169,21 @@ public class AuthServiceImplementation {
     @Transactional
     public void forgotPassword(ForgotPasswordRequest request) {
         try {
-            Optional<UserMinimalProjection> userOpt = userRepository.findByEmail(request.getEmail(), UserMinimalProjection.class);
+            Optional<UserAuthProjection> userOpt = userCache.findByEmail(request.getEmail());
             if (userOpt.isEmpty()) {
-                System.out.println("No user found with email: " + request.getEmail());
+                auditLog.record(AuditEventType.PASSWORD_RESET_REQUESTED, null, request.getEmail(), "Unknown email");
                 return;
             }
 
-            UserMinimalProjection user = userOpt.get();
-            String token = UUID.randomUUID().toString();
-
-            PasswordResetToken resetToken = new PasswordResetToken();
-            resetToken.setUserId(user.getUserId());
-            resetToken.setToken(token);
-            resetToken.setExpiresAt(Instant.now().plusMillis(3600000));
-            passwordResetTokenRepository.save(resetToken);
+            UserAuthProjection user = userOpt.get();
+            String token = passwordResetTokens.issue(user, Instant.now().plusMillis(3600000));
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(user.getEmail());
-            message.setSubject("Password Reset Request");
-            message.setText("To reset your password, click the link below:\n" +
+            mailOutboxService.enqueue(user.getEmail(), "Password Reset Request",
+                    "To reset your password, click the link below:\n" +
                     "http://localhost:8080/api/auth/reset-password?token=" + token);
-
-            mailSender.send(message);
-            System.out.println("Reset email sent to: " + user.getEmail());
+            auditLog.record(AuditEventType.PASSWORD_RESET_REQUESTED, user.getUserId(), user.getEmail());
         } catch (Exception e) {
-            System.err.println("Error during forgot password process: " + e.getMessage());
+            log.error("Error during forgot password process", e);
             throw new RuntimeException("Forgot password failed", e);
         }
     }
@@ -152,40 +194,85 @@ public class AuthServiceImplementation {
                 throw new IllegalArgumentException("Passwords do not match");
             }
 
-            PasswordResetToken token = passwordResetTokenRepository
-                    .findByTokenAndExpiresAtAfterAndUsedFalse(request.getToken(), Instant.now())
+            PasswordResetTokens.Redemption user = passwordResetTokens.redeem(request.getToken(), Instant.now())
                     .orElseThrow(() -> new IllegalArgumentException("Invalid or expired reset token"));
 
-            UserMinimalProjection user = userRepository.findByResetToken(request.getToken(), Instant.now(), UserMinimalProjection.class)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found for reset token"));
-
-            User userEntity = userRepository.findById(user.getUserId())
-                    .orElseThrow(() -> new IllegalStateException("User not found"));
-
-            userEntity.setPassword(passwordEncoder.encode(request.getPassword()));
-            userRepository.save(userEntity);
-
-            token.setUsed(true);
-            passwordResetTokenRepository.save(token);
+            if (!user.complete(passwordHashingService.encode(request.getPassword()))) {
+                throw new IllegalArgumentException("Invalid or expired reset token");
+            }
+            userCache.evict(user.getUserId(), user.getEmail());
+            auditLog.record(AuditEventType.PASSWORD_RESET, user.getUserId(), user.getEmail());
+        } catch (ServiceBusyException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            auditLog.record(AuditEventType.PASSWORD_RESET_FAILED, null, null, e.getMessage());
+            throw new RuntimeException("Password reset failed", e);
         } catch (Exception e) {
-            System.err.println("Error during password reset: " + e.getMessage());
+            log.error("Error during password reset", e);
             throw new RuntimeException("Password reset failed", e);
         }
     }
 
+    public List<SessionResponse> sessions(UUID userId) {
+        return refreshTokenStore.sessions(userId, Instant.now()).stream()
+                .map(session -> SessionResponse.builder()
+                        .id(session.getId())
+                        .createdAt(session.getId().version() == 7 ? Instant.ofEpochMilli(UuidV7.timestamp(session.getId())) : null)
+                        .expiresAt(session.getExpiresAt())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Revokes one of the user's sessions; the access tokens already issued to it run out on their own.
+     */
+    public boolean revokeSession(UUID userId, UUID sessionId) {
+        boolean revoked = refreshTokenStore.revokeSession(userId, sessionId);
+        if (revoked) {
+            auditLog.record(AuditEventType.SESSION_REVOKED, userId, null, sessionId.toString());
+        }
+        return revoked;
+    }
+
+    /**
+     * Signs the user out everywhere: deletes every refresh session in one statement and rejects the
+     * access tokens issued so far, the caller's own included.
+     */
+    public int revokeAllSessions(UUID userId) {
+        int revoked = refreshTokenStore.revokeAll(userId);
+        accessTokenDenylist.revokeIssuedBefore(userId);
+        auditLog.record(AuditEventType.ALL_SESSIONS_REVOKED, userId, null, revoked + " sessions");
+        return revoked;
+    }
+
     @Transactional
     public void logout(RefreshTokenRequest request) {
-        try {
-            Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByTokenAndExpiresAtAfter(request.getRefreshToken(), Instant.now());
+        logout(request, null);
+    }
 
-            if (tokenOpt.isEmpty()) {
+    /**
+     * Revokes the refresh token and, when the caller presents it, the access token as well, so neither can
+     * be used again before it expires.
+     */
+    @Transactional
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        try {
+            if (accessToken != null) {
+                jwtTokenProvider.verify(accessToken)
+                        .filter(TokenClaims::isAccessToken)
+                        .ifPresent(claims -> accessTokenDenylist.revoke(claims.tokenId(), claims.expiresAt()));
+            }
+            byte[] tokenHash = TokenDigests.sha256(request.getRefreshToken());
+            if (!refreshTokenStore.revoke(tokenHash, Instant.now())) {
                 throw new IllegalArgumentException("Invalid or expired refresh token");
             }
-
-            System.out.println("Token found, proceeding with deletion: " + request.getRefreshToken());
-            refreshTokenRepository.deleteByToken(request.getRefreshToken());
+            UUID userId = jwtTokenProvider.verify(request.getRefreshToken()).map(TokenClaims::userId).orElse(null);
+            auditLog.record(AuditEventType.LOGGED_OUT, userId, null);
+        } catch (IllegalArgumentException e) {
+            auditLog.record(AuditEventType.LOGOUT_FAILED, null, null, e.getMessage());
+            throw new RuntimeException("Logout failed", e);
         } catch (Exception e) {
-            System.err.println("Error during logout: " + e.getMessage());
+            log.error("Error during logout", e);
             throw new RuntimeException("Logout failed", e);
         }
     }
@@ -0,0 +1,87 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.repository.MailOutboxRepository;
+import com.logistics.LogisticsFuture.repository.PasswordResetTokenRepository;
+import com.logistics.LogisticsFuture.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Purges expired refresh tokens, used or expired password-reset tokens, and sent or dead outbox mail
+ * older than {@code mail.outbox.retention}, since its bodies carry reset links. Rows are deleted in
+ * bounded batches, each in its own short transaction, so the job never holds locks for long and
+ * a run is capped at {@code token.reaper.max-batches} batches per table.
+ */
+@Component
+public class ExpiredTokenReaper {
+    private static final Logger log = LoggerFactory.getLogger(ExpiredTokenReaper.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final Duration mailRetention;
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final Counter refreshTokensPurged;
+    private final Counter resetTokensPurged;
+    private final Counter mailPurged;
+    private final Timer runTime;
+
+    public ExpiredTokenReaper(RefreshTokenRepository refreshTokenRepository,
+                              PasswordResetTokenRepository passwordResetTokenRepository,
+                              MailOutboxRepository mailOutboxRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${mail.outbox.retention:P7D}") Duration mailRetention,
+                              @Value("${token.reaper.batch-size:1000}") int batchSize,
+                              @Value("${token.reaper.max-batches:100}") int maxBatches) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailRetention = mailRetention;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+
+        refreshTokensPurged = Counter.builder("token.reaper.purged").tag("table", "refresh_tokens").register(meterRegistry);
+        resetTokensPurged = Counter.builder("token.reaper.purged").tag("table", "password_reset_tokens").register(meterRegistry);
+        mailPurged = Counter.builder("token.reaper.purged").tag("table", "mail_outbox").register(meterRegistry);
+        runTime = Timer.builder("token.reaper.duration").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${token.reaper.cron:0 */15 * * * *}")
+    public void purge() {
+        runTime.record(() -> {
+            Instant now = Instant.now();
+            int refreshTokens = purge(refreshTokenRepository::deleteExpiredBatch, now, refreshTokensPurged);
+            int resetTokens = purge(passwordResetTokenRepository::deleteUsedOrExpiredBatch, now, resetTokensPurged);
+            int mail = purge(mailOutboxRepository::deleteFinishedBatch, now.minus(mailRetention), mailPurged);
+            if (refreshTokens > 0 || resetTokens > 0 || mail > 0) {
+                log.info("Purged {} refresh tokens, {} password reset tokens and {} outbox messages",
+                        refreshTokens, resetTokens, mail);
+            }
+        });
+    }
+
+    private int purge(ToIntBiFunction<Instant, Integer> deleteBatch, Instant cutoff, Counter purged) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int deleted = deleteBatch.applyAsInt(cutoff, batchSize);
+            total += deleted;
+            purged.increment(deleted);
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,412 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.projection.RefreshSessionProjection;
+import com.logistics.LogisticsFuture.projection.UserRefreshProjection;
+import com.logistics.LogisticsFuture.utility.UuidV7;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps live refresh sessions in memory and persists changes to {@code refresh_tokens} behind the request.
+ * Sessions live in a {@link ConcurrentHashMap} keyed by token digest, whose per-bin locking spreads
+ * concurrent rotations across the table instead of serialising them. Inserts, rotations and deletes are
+ * queued in order and flushed as JDBC batches every {@code auth.refresh-store.memory.durability-window}
+ * by a thread of the store's own, so no other scheduled job can hold the flush up; a crash loses at most
+ * that window of session changes, plus the time of a flush in progress, and affected users sign in again.
+ * <p>
+ * On startup every live session is reloaded from the database. Sessions are local to the instance, so this
+ * store is only suitable for a single instance or for deployments that route a client to the same instance.
+ * The per-user operations (listing, revoking all, evicting) scan the map rather than keeping a second index
+ * in step with every rotation; at the session counts a single instance holds that is a few milliseconds.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.refresh-store.type", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryRefreshTokenStore.class);
+
+    private static final String INSERT_SQL = "INSERT INTO refresh_tokens (id, user_id, token_hash, expires_at) VALUES (?, ?, ?, ?)";
+    private static final String ROTATE_SQL = "UPDATE refresh_tokens SET previous_token_hash = token_hash, token_hash = ?, expires_at = ? WHERE token_hash = ?";
+    private static final String DELETE_SQL = "DELETE FROM refresh_tokens WHERE token_hash = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxFlushSize;
+
+    private final ConcurrentHashMap<TokenKey, Session> sessions = new ConcurrentHashMap<>();
+    // previous token digest -> current token digest, to recognise replays of rotated tokens
+    private final ConcurrentHashMap<TokenKey, TokenKey> rotatedFrom = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<PendingWrite> pendingWrites = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer flushTimer;
+    private final Duration durabilityWindow;
+    // Its own thread: on the shared scheduler an SMTP send or a reaper run could hold the flush for minutes
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "refresh-store-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InMemoryRefreshTokenStore(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${auth.refresh-store.memory.max-flush-size:5000}") int maxFlushSize,
+                                     @Value("${auth.refresh-store.memory.durability-window:PT0.2S}") Duration durabilityWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.durabilityWindow = durabilityWindow;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxFlushSize = maxFlushSize;
+
+        Gauge.builder("refresh.store.sessions", sessions, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("refresh.store.pending.writes", pendingCount, AtomicInteger::get).register(meterRegistry);
+        flushTimer = Timer.builder("refresh.store.flush").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void recover() {
+        jdbcTemplate.query("SELECT rt.id, rt.user_id, u.email, rt.token_hash, rt.previous_token_hash, rt.expires_at " +
+                "FROM refresh_tokens rt JOIN users u ON u.user_id = rt.user_id WHERE rt.expires_at > ?", resultSet -> {
+            byte[] previousHash = resultSet.getBytes("previous_token_hash");
+            Session session = new Session(
+                    resultSet.getObject("id", UUID.class),
+                    resultSet.getObject("user_id", UUID.class),
+                    resultSet.getString("email"),
+                    resultSet.getBytes("token_hash"),
+                    previousHash == null ? null : TokenKey.of(previousHash),
+                    resultSet.getTimestamp("expires_at").toInstant());
+            TokenKey key = TokenKey.of(session.tokenHash());
+            sessions.put(key, session);
+            if (session.previousKey() != null) {
+                rotatedFrom.put(session.previousKey(), key);
+            }
+        }, Timestamp.from(Instant.now()));
+        log.info("Recovered {} refresh sessions from the database", sessions.size());
+
+        long window = durabilityWindow.toMillis();
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void create(UUID userId, String email, byte[] tokenHash, Instant expiresAt) {
+        Session session = new Session(UuidV7.generate(), userId, email, tokenHash, null, expiresAt);
+        sessions.put(TokenKey.of(tokenHash), session);
+        enqueue(new Insert(session));
+    }
+
+    @Override
+    public Optional<UserRefreshProjection> rotate(byte[] tokenHash, byte[] newTokenHash, Instant expiresAt, Instant now) {
+        TokenKey key = TokenKey.of(tokenHash);
+        // remove() hands the session to exactly one of several concurrent rotations
+        Session session = sessions.remove(key);
+        if (session == null) {
+            return Optional.empty();
+        }
+        if (!session.expiresAt().isAfter(now)) {
+            forget(session);
+            enqueue(new Delete(tokenHash));
+            return Optional.empty();
+        }
+
+        TokenKey newKey = TokenKey.of(newTokenHash);
+        Session rotated = new Session(session.id(), session.userId(), session.email(), newTokenHash, key, expiresAt);
+        sessions.put(newKey, rotated);
+        if (session.previousKey() != null) {
+            rotatedFrom.remove(session.previousKey());
+        }
+        rotatedFrom.put(key, newKey);
+        enqueue(new Rotate(tokenHash, newTokenHash, expiresAt));
+        return Optional.of(rotated);
+    }
+
+    @Override
+    public boolean revokeRotatedFrom(byte[] tokenHash) {
+        TokenKey currentKey = rotatedFrom.remove(TokenKey.of(tokenHash));
+        if (currentKey == null) {
+            return false;
+        }
+        Session session = sessions.remove(currentKey);
+        if (session == null) {
+            return false;
+        }
+        enqueue(new Delete(session.tokenHash()));
+        return true;
+    }
+
+    @Override
+    public boolean revoke(byte[] tokenHash, Instant now) {
+        Session session = sessions.remove(TokenKey.of(tokenHash));
+        if (session == null) {
+            return false;
+        }
+        forget(session);
+        enqueue(new Delete(tokenHash));
+        return session.expiresAt().isAfter(now);
+    }
+
+    @Override
+    public List<RefreshSessionProjection> sessions(UUID userId, Instant now) {
+        return sessions.values().stream()
+                .filter(session -> session.userId().equals(userId) && session.expiresAt().isAfter(now))
+                .sorted(Comparator.comparing(Session::id))
+                .map(RefreshSessionProjection.class::cast)
+                .toList();
+    }
+
+    @Override
+    public boolean revokeSession(UUID userId, UUID sessionId) {
+        for (Map.Entry<TokenKey, Session> entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            if (session.id().equals(sessionId) && session.userId().equals(userId)) {
+                return remove(entry.getKey(), session);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int revokeAll(UUID userId) {
+        int revoked = 0;
+        for (Map.Entry<TokenKey, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().userId().equals(userId) && remove(entry.getKey(), entry.getValue())) {
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public int evictOldest(UUID userId, int maxSessions, Instant now) {
+        List<Map.Entry<TokenKey, Session>> live = new ArrayList<>();
+        int evicted = 0;
+        for (Map.Entry<TokenKey, Session> entry : sessions.entrySet()) {
+            Session session = entry.getValue();
+            if (!session.userId().equals(userId)) {
+                continue;
+            }
+            if (session.expiresAt().isAfter(now)) {
+                live.add(Map.entry(entry.getKey(), session));
+            } else if (remove(entry.getKey(), session)) {
+                evicted++;
+            }
+        }
+        live.sort(Comparator.comparing((Map.Entry<TokenKey, Session> entry) -> entry.getValue().id()).reversed());
+        for (Map.Entry<TokenKey, Session> entry : live.subList(Math.min(maxSessions, live.size()), live.size())) {
+            if (remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Writes queued changes to PostgreSQL in order, grouping consecutive changes of the same kind into one
+     * JDBC batch. When the batch fails the changes are retried one at a time: changes the database rejects
+     * as invalid are dropped, anything else is put back for the next flush.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PendingWrite> writes = drain();
+            if (writes.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyInBatches(writes));
+            } catch (RuntimeException e) {
+                log.warn("Refresh session batch of {} failed, applying one by one: {}", writes.size(), e.getMessage());
+                applyOneByOne(writes);
+            }
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // A task that throws is never run again, which would silently stop persisting sessions
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Refresh session flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-store.memory.eviction-interval:PT1M}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        sessions.values().removeIf(session -> {
+            boolean expired = !session.expiresAt().isAfter(now);
+            if (expired && session.previousKey() != null) {
+                rotatedFrom.remove(session.previousKey());
+            }
+            return expired;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(durabilityWindow.toMillis() + 5000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // Removes the session only if a concurrent rotation has not replaced it in the meantime
+    private boolean remove(TokenKey key, Session session) {
+        if (!sessions.remove(key, session)) {
+            return false;
+        }
+        forget(session);
+        enqueue(new Delete(session.tokenHash()));
+        return true;
+    }
+
+    private void forget(Session session) {
+        if (session.previousKey() != null) {
+            rotatedFrom.remove(session.previousKey());
+        }
+    }
+
+    private void enqueue(PendingWrite write) {
+        pendingWrites.addLast(write);
+        pendingCount.incrementAndGet();
+    }
+
+    private List<PendingWrite> drain() {
+        List<PendingWrite> writes = new ArrayList<>();
+        PendingWrite write;
+        while (writes.size() < maxFlushSize && (write = pendingWrites.pollFirst()) != null) {
+            writes.add(write);
+        }
+        pendingCount.addAndGet(-writes.size());
+        return writes;
+    }
+
+    private void applyInBatches(List<PendingWrite> writes) {
+        int start = 0;
+        while (start < writes.size()) {
+            Class<?> kind = writes.get(start).getClass();
+            int end = start;
+            while (end < writes.size() && writes.get(end).getClass() == kind) {
+                end++;
+            }
+            List<PendingWrite> run = writes.subList(start, end);
+            jdbcTemplate.batchUpdate(sqlFor(run.get(0)), run.stream().map(InMemoryRefreshTokenStore::argumentsFor).toList());
+            start = end;
+        }
+    }
+
+    private void applyOneByOne(List<PendingWrite> writes) {
+        for (int i = 0; i < writes.size(); i++) {
+            PendingWrite write = writes.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sqlFor(write), argumentsFor(write)));
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropping refresh session change rejected by the database: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                List<PendingWrite> remaining = writes.subList(i, writes.size());
+                for (int j = remaining.size() - 1; j >= 0; j--) {
+                    pendingWrites.addFirst(remaining.get(j));
+                }
+                pendingCount.addAndGet(remaining.size());
+                log.error("Refresh session flush failed, {} changes kept for retry: {}", remaining.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static String sqlFor(PendingWrite write) {
+        return switch (write) {
+            case Insert insert -> INSERT_SQL;
+            case Rotate rotate -> ROTATE_SQL;
+            case Delete delete -> DELETE_SQL;
+        };
+    }
+
+    private static Object[] argumentsFor(PendingWrite write) {
+        return switch (write) {
+            case Insert insert -> new Object[]{insert.session().id(), insert.session().userId(),
+                    insert.session().tokenHash(), Timestamp.from(insert.session().expiresAt())};
+            case Rotate rotate -> new Object[]{rotate.newTokenHash(), Timestamp.from(rotate.expiresAt()), rotate.tokenHash()};
+            case Delete delete -> new Object[]{delete.tokenHash()};
+        };
+    }
+
+    record Session(UUID id, UUID userId, String email, byte[] tokenHash, TokenKey previousKey, Instant expiresAt)
+            implements UserRefreshProjection, RefreshSessionProjection {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        @Override
+        public UUID getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    // A SHA-256 digest as four longs: cheap equals/hashCode, no array copies
+    record TokenKey(long w0, long w1, long w2, long w3) {
+        static TokenKey of(byte[] digest) {
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new TokenKey(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    sealed interface PendingWrite permits Insert, Rotate, Delete {
+    }
+
+    record Insert(Session session) implements PendingWrite {
+    }
+
+    record Rotate(byte[] tokenHash, byte[] newTokenHash, Instant expiresAt) implements PendingWrite {
+    }
+
+    record Delete(byte[] tokenHash) implements PendingWrite {
+    }
+}
@@ -0,0 +1,65 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.RefreshToken;
+import com.logistics.LogisticsFuture.projection.RefreshSessionProjection;
+import com.logistics.LogisticsFuture.projection.UserRefreshProjection;
+import com.logistics.LogisticsFuture.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.refresh-store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Override
+    public void create(UUID userId, String email, byte[] tokenHash, Instant expiresAt) {
+        RefreshToken tokenEntity = new RefreshToken();
+        tokenEntity.setUserId(userId);
+        tokenEntity.setTokenHash(tokenHash);
+        tokenEntity.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(tokenEntity);
+    }
+
+    @Override
+    public Optional<UserRefreshProjection> rotate(byte[] tokenHash, byte[] newTokenHash, Instant expiresAt, Instant now) {
+        return refreshTokenRepository.rotate(tokenHash, newTokenHash, expiresAt, now);
+    }
+
+    @Override
+    public boolean revokeRotatedFrom(byte[] tokenHash) {
+        return refreshTokenRepository.deleteByPreviousTokenHash(tokenHash) > 0;
+    }
+
+    @Override
+    public boolean revoke(byte[] tokenHash, Instant now) {
+        return refreshTokenRepository.deleteLiveByTokenHash(tokenHash, now) > 0;
+    }
+
+    @Override
+    public List<RefreshSessionProjection> sessions(UUID userId, Instant now) {
+        return refreshTokenRepository.findByUserIdAndExpiresAtAfterOrderByIdAsc(userId, now);
+    }
+
+    @Override
+    public boolean revokeSession(UUID userId, UUID sessionId) {
+        return refreshTokenRepository.deleteByIdAndUserId(sessionId, userId) > 0;
+    }
+
+    @Override
+    public int revokeAll(UUID userId) {
+        return refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Override
+    public int evictOldest(UUID userId, int maxSessions, Instant now) {
+        return refreshTokenRepository.deleteAllButNewest(userId, maxSessions, now);
+    }
+}
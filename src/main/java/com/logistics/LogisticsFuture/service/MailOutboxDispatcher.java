@@ -0,0 +1,152 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.MailOutboxMessage;
+import com.logistics.LogisticsFuture.model.MailOutboxStatus;
+import com.logistics.LogisticsFuture.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the mail outbox in batches. A failed send is retried with exponential backoff
+ * and moved to {@link MailOutboxStatus#DEAD} once {@code mail.outbox.max-attempts} is reached.
+ * <p>
+ * No transaction, connection or row lock is held while talking to the mail server. A batch is claimed in a
+ * short transaction that leases its rows, pushing {@code next_attempt_at} out by {@code mail.outbox.lease} so
+ * no other poll picks them up; each message is then sent and its outcome saved in a transaction of its own.
+ * Should the instance die mid-batch, the unsent rows become due again when the lease runs out. The lease must
+ * outlast sending a whole batch, or a slow batch can be claimed and sent a second time.
+ */
+@Component
+public class MailOutboxDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final Timer sendTimer;
+    private final Timer failedSendTimer;
+    private final Counter deadLettered;
+
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+                                JavaMailSender mailSender,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${mail.outbox.batch-size:50}") int batchSize,
+                                @Value("${mail.outbox.max-attempts:8}") int maxAttempts,
+                                @Value("${mail.outbox.initial-backoff:PT30S}") Duration initialBackoff,
+                                @Value("${mail.outbox.max-backoff:PT1H}") Duration maxBackoff,
+                                @Value("${mail.outbox.lease:PT10M}") Duration lease) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("mail.outbox.depth", pending, AtomicLong::get).register(meterRegistry);
+        sendTimer = Timer.builder("mail.outbox.send").tag("outcome", "success").register(meterRegistry);
+        failedSendTimer = Timer.builder("mail.outbox.send").tag("outcome", "failure").register(meterRegistry);
+        deadLettered = Counter.builder("mail.outbox.dead.lettered").register(meterRegistry);
+    }
+
+    /**
+     * Sends one batch of due messages and returns how many were picked up.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:PT2S}", initialDelayString = "${mail.outbox.initial-delay:PT10S}")
+    public int dispatch() {
+        List<MailOutboxMessage> batch = transactionTemplate.execute(status -> claim(Instant.now()));
+        for (MailOutboxMessage message : batch) {
+            send(message);
+            try {
+                transactionTemplate.executeWithoutResult(status -> mailOutboxRepository.save(message));
+            } catch (RuntimeException e) {
+                // Sent but not recorded: it goes out again once the lease expires
+                log.error("Could not record the outcome of mail {}: {}", message.getId(), e.getMessage());
+            }
+        }
+        pending.set(mailOutboxRepository.countByStatus(MailOutboxStatus.PENDING));
+        return batch.size();
+    }
+
+    private List<MailOutboxMessage> claim(Instant now) {
+        List<MailOutboxMessage> batch = mailOutboxRepository.lockDueBatch(now, batchSize);
+        Instant leasedUntil = now.plus(lease);
+        for (MailOutboxMessage message : batch) {
+            message.setNextAttemptAt(leasedUntil);
+        }
+        mailOutboxRepository.saveAll(batch);
+        return batch;
+    }
+
+    public long pendingCount() {
+        return pending.get();
+    }
+
+    private void send(MailOutboxMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+
+        long start = System.nanoTime();
+        try {
+            mailSender.send(mail);
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            message.setStatus(MailOutboxStatus.SENT);
+            message.setSentAt(Instant.now());
+            message.setLastError(null);
+        } catch (RuntimeException e) {
+            // Not only MailException: a message the sender cannot even build must not stop the batch
+            failedSendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            int attempts = message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            message.setLastError(truncate(e.getMessage()));
+            if (attempts >= maxAttempts) {
+                message.setStatus(MailOutboxStatus.DEAD);
+                deadLettered.increment();
+                log.error("Giving up on mail {} after {} attempts: {}", message.getId(), attempts, e.getMessage());
+            } else {
+                message.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+                log.warn("Mail {} failed on attempt {}, retrying: {}", message.getId(), attempts, e.getMessage());
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= 1000) {
+            return error;
+        }
+        return error.substring(0, 1000);
+    }
+}
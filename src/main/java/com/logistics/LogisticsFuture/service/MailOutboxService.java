@@ -0,0 +1,33 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.MailOutboxMessage;
+import com.logistics.LogisticsFuture.model.MailOutboxStatus;
+import com.logistics.LogisticsFuture.repository.MailOutboxRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Queues outgoing mail in the caller's transaction. Delivery happens later in
+ * {@link MailOutboxDispatcher}, so no request thread ever waits on SMTP.
+ */
+@Service
+@RequiredArgsConstructor
+public class MailOutboxService {
+    private final MailOutboxRepository mailOutboxRepository;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void enqueue(String recipient, String subject, String body) {
+        Instant now = Instant.now();
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setRecipient(recipient);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setStatus(MailOutboxStatus.PENDING);
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        mailOutboxRepository.save(message);
+    }
+}
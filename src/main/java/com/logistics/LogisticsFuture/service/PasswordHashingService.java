@@ -0,0 +1,151 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on a dedicated pool sized to the CPU count so that a login storm cannot occupy
+ * every request thread. The queue is bounded; when it is full callers fail fast with
+ * {@link ServiceBusyException} instead of piling up behind the hashes already waiting.
+ */
+@Service
+public class PasswordHashingService {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final Timer queueWait;
+    private final Timer encodeTime;
+    private final Timer matchTime;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.password.hashing.threads:0}") int threads,
+                                  @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        queueWait = Timer.builder("password.hashing.queue.wait").register(meterRegistry);
+        encodeTime = Timer.builder("password.hashing.time").tag("operation", "encode").register(meterRegistry);
+        matchTime = Timer.builder("password.hashing.time").tag("operation", "matches").register(meterRegistry);
+        rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword), encodeTime));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchTime));
+    }
+
+    /**
+     * Hashes a batch across the pool. At most one task per pool thread is queued at a time, so a bulk
+     * job keeps the pool busy without taking the queue space interactive logins depend on.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        for (int start = 0; start < rawPasswords.size(); start += poolSize) {
+            List<Future<String>> window = new ArrayList<>(poolSize);
+            for (CharSequence rawPassword : rawPasswords.subList(start, Math.min(start + poolSize, rawPasswords.size()))) {
+                window.add(submit(() -> passwordEncoder.encode(rawPassword), encodeTime));
+            }
+            for (Future<String> future : window) {
+                encoded.add(await(future));
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Whether the stored hash was produced with a lower cost than the configured target.
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Rehashes at the target cost off the caller's thread and hands the new hash to {@code onRehashed}.
+     * Best effort: skipped when the pool is saturated, so it is retried on a later login.
+     */
+    public void rehashInBackground(CharSequence rawPassword, Consumer<String> onRehashed) {
+        try {
+            submit(() -> {
+                try {
+                    onRehashed.accept(passwordEncoder.encode(rawPassword));
+                } catch (RuntimeException e) {
+                    log.warn("Password rehash failed: {}", e.getMessage());
+                }
+                return null;
+            }, encodeTime);
+        } catch (ServiceBusyException e) {
+            log.debug("Skipping password rehash, hashing pool is saturated");
+        }
+    }
+
+    private <T> Future<T> submit(Supplier<T> task, Timer hashTime) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    hashTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many concurrent password operations, please retry", e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,34 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.projection.UserAuthProjection;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issuing and redeeming password-reset tokens.
+ * Selected with {@code auth.password-reset.mode}: {@code table} (default) stores each token as a row and marks it
+ * used, {@code stateless} hands out HMAC-signed tokens that need no storage at all.
+ */
+public interface PasswordResetTokens {
+
+    String issue(UserAuthProjection user, Instant expiresAt);
+
+    /**
+     * Looks up the user a live, unused token was issued to. Nothing changes until {@link Redemption#complete}
+     * is called, so the new password only has to be hashed for tokens that are valid.
+     */
+    Optional<Redemption> redeem(String token, Instant now);
+
+    interface Redemption {
+        UUID getUserId();
+
+        String getEmail();
+
+        /**
+         * Replaces the password and uses up the token. False when the token was used concurrently.
+         */
+        boolean complete(String newPasswordHash);
+    }
+}
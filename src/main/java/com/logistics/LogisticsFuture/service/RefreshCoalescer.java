@@ -0,0 +1,110 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.dto.AuthResponse;
+import com.logistics.LogisticsFuture.utility.TokenDigests;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of refresh requests, keyed by the SHA-256 digest of the presented
+ * refresh token. The first caller rotates the token; callers presenting the same token while that
+ * rotation runs, or within {@code grace-window} after it succeeded, receive the same token pair
+ * instead of replaying the already rotated token, which reuse detection would treat as theft.
+ * Failures are shared with the callers already waiting but never kept afterwards.
+ * <p>
+ * Wraps the transactional service call, so a shared result is only handed out once it is committed.
+ * Deduplication is per instance; behind a load balancer the duplicates must reach the same node.
+ */
+@Component
+public class RefreshCoalescer {
+    private final boolean enabled;
+    private final long graceWindowMillis;
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public RefreshCoalescer(@Value("${auth.refresh.coalescing.enabled:true}") boolean enabled,
+                            @Value("${auth.refresh.coalescing.grace-window:PT2S}") Duration graceWindow,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.graceWindowMillis = graceWindow.toMillis();
+
+        FunctionCounter.builder("auth.refresh.flights", leaders, LongAdder::sum).tag("result", "rotated").register(meterRegistry);
+        FunctionCounter.builder("auth.refresh.flights", coalesced, LongAdder::sum).tag("result", "coalesced").register(meterRegistry);
+        Gauge.builder("auth.refresh.flights.active", flights, Map::size).register(meterRegistry);
+    }
+
+    public AuthResponse refresh(String refreshToken, Supplier<AuthResponse> rotation) {
+        if (!enabled || refreshToken == null) {
+            return rotation.get();
+        }
+        String key = TokenDigests.sha256Base64(refreshToken);
+        Flight mine = new Flight();
+        Flight flight = flights.compute(key, (k, existing) -> existing != null && existing.isLive() ? existing : mine);
+        if (flight != mine) {
+            coalesced.increment();
+            return flight.await();
+        }
+
+        leaders.increment();
+        try {
+            AuthResponse response = rotation.get();
+            mine.result.complete(response);
+            if (graceWindowMillis > 0) {
+                CompletableFuture.delayedExecutor(graceWindowMillis, TimeUnit.MILLISECONDS)
+                        .execute(() -> flights.remove(key, mine));
+            } else {
+                flights.remove(key, mine);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            flights.remove(key, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long rotatedCount() {
+        return leaders.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int size() {
+        return flights.size();
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<AuthResponse> result = new CompletableFuture<>();
+
+        // A failed flight is removed by its leader, but a caller can still observe it before that
+        boolean isLive() {
+            return !result.isCompletedExceptionally();
+        }
+
+        AuthResponse await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.projection.RefreshSessionProjection;
+import com.logistics.LogisticsFuture.projection.UserRefreshProjection;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage of refresh-token sessions, addressed by the SHA-256 digest of the token.
+ * Selected with {@code auth.refresh-store.type}: {@code jpa} (default) writes through to PostgreSQL on every
+ * call, {@code memory} serves from memory and persists asynchronously.
+ */
+public interface RefreshTokenStore {
+
+    void create(UUID userId, String email, byte[] tokenHash, Instant expiresAt);
+
+    /**
+     * Atomically replaces a live token with its successor and returns the session owner.
+     * Empty when the token is unknown, expired or was already rotated.
+     * <p>
+     * A session remembers only the one token it was last rotated from, not the whole chain, so only that
+     * token is recognised by {@link #revokeRotatedFrom}. A token two or more rotations old is just unknown:
+     * replaying it fails but leaves the session alive.
+     */
+    Optional<UserRefreshProjection> rotate(byte[] tokenHash, byte[] newTokenHash, Instant expiresAt, Instant now);
+
+    /**
+     * Revokes the session whose previous token was {@code tokenHash}, returning whether one existed.
+     * Called when a rotated token is replayed. Only catches a replay of the token immediately before the
+     * current one; see {@link #rotate}.
+     */
+    boolean revokeRotatedFrom(byte[] tokenHash);
+
+    /**
+     * Revokes a live token, returning whether it existed and had not expired.
+     */
+    boolean revoke(byte[] tokenHash, Instant now);
+
+    /**
+     * Live sessions of a user, oldest login first. A session keeps its id across rotations.
+     */
+    List<RefreshSessionProjection> sessions(UUID userId, Instant now);
+
+    /**
+     * Revokes one session of a user, returning whether it existed.
+     */
+    boolean revokeSession(UUID userId, UUID sessionId);
+
+    /**
+     * Revokes every session of a user, returning how many there were.
+     */
+    int revokeAll(UUID userId);
+
+    /**
+     * Keeps the user's {@code maxSessions} most recent live sessions and removes the rest, expired ones
+     * included. Returns the number removed.
+     */
+    int evictOldest(UUID userId, int maxSessions, Instant now);
+}
@@ -0,0 +1,134 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.projection.UserAuthProjection;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Password-reset tokens that carry their own state: {@code base64url(userId | expiry | HMAC-SHA256)}, where the
+ * MAC also covers the user's current password hash. Issuing one writes nothing. Redeeming one reads the user
+ * once and swaps the password with a compare-and-set on the old hash, after which the MAC no longer matches,
+ * so every token is single use and all outstanding tokens die with any password change. The hash itself never
+ * leaves the server. Tokens cannot be revoked individually before they expire.
+ * <p>
+ * The MAC key is derived from {@code auth.password-reset.secret}, which defaults to {@code jwt.secret}, so
+ * rotating that secret invalidates every outstanding reset link.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.password-reset.mode", havingValue = "stateless")
+public class SignedPasswordResetTokens implements PasswordResetTokens {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_LENGTH = 16 + Long.BYTES;
+    private static final int MAC_LENGTH = 32;
+
+    private final UserRepository userRepository;
+    private final SecretKeySpec key;
+
+    public SignedPasswordResetTokens(UserRepository userRepository,
+                                     @Value("${auth.password-reset.secret:${jwt.secret:}}") String secret) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalStateException("auth.password-reset.secret must be at least 32 characters for stateless reset tokens");
+        }
+        this.userRepository = userRepository;
+        // A key of its own, so nothing else signed with the same secret can pass as a reset token
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM),
+                "password-reset".getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+    }
+
+    @Override
+    public String issue(UserAuthProjection user, Instant expiresAt) {
+        // Signed over the hash in the database, as redeem checks it; the caller's copy may come from the user cache
+        String passwordHash = userRepository.findByUserId(user.getUserId(), UserAuthProjection.class)
+                .map(UserAuthProjection::getPassword)
+                .orElseThrow(() -> new IllegalStateException("User not found"));
+        ByteBuffer token = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH);
+        token.put(payload(user.getUserId(), expiresAt.getEpochSecond()));
+        token.put(mac(token.array(), passwordHash));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    @Override
+    public Optional<Redemption> redeem(String token, Instant now) {
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (decoded.length != PAYLOAD_LENGTH + MAC_LENGTH) {
+            return Optional.empty();
+        }
+
+        byte[] presentedMac = Arrays.copyOfRange(decoded, PAYLOAD_LENGTH, decoded.length);
+        ByteBuffer buffer = ByteBuffer.wrap(decoded);
+        UUID userId = new UUID(buffer.getLong(), buffer.getLong());
+        long expiresAt = buffer.getLong();
+        if (now.getEpochSecond() >= expiresAt) {
+            return Optional.empty();
+        }
+
+        // Read from the database rather than the user cache, which may hold a hash changed on another instance
+        return userRepository.findByUserId(userId, UserAuthProjection.class)
+                .filter(user -> MessageDigest.isEqual(mac(decoded, user.getPassword()), presentedMac))
+                .map(user -> new Redemption() {
+                    @Override
+                    public UUID getUserId() {
+                        return user.getUserId();
+                    }
+
+                    @Override
+                    public String getEmail() {
+                        return user.getEmail();
+                    }
+
+                    @Override
+                    public boolean complete(String newPasswordHash) {
+                        return userRepository.updatePasswordIfUnchanged(user.getUserId(), user.getPassword(), newPasswordHash) > 0;
+                    }
+                });
+    }
+
+    private static byte[] payload(UUID userId, long expiresAt) {
+        return ByteBuffer.allocate(PAYLOAD_LENGTH)
+                .putLong(userId.getMostSignificantBits())
+                .putLong(userId.getLeastSignificantBits())
+                .putLong(expiresAt)
+                .array();
+    }
+
+    // Covers the payload at the start of the token and the password hash the token was issued against
+    private byte[] mac(byte[] token, String passwordHash) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(token, 0, PAYLOAD_LENGTH);
+            return mac.doFinal(passwordHash.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.PasswordResetToken;
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.projection.UserAuthProjection;
+import com.logistics.LogisticsFuture.projection.UserMinimalProjection;
+import com.logistics.LogisticsFuture.repository.PasswordResetTokenRepository;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.password-reset.mode", havingValue = "table", matchIfMissing = true)
+public class TablePasswordResetTokens implements PasswordResetTokens {
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public String issue(UserAuthProjection user, Instant expiresAt) {
+        String token = UUID.randomUUID().toString();
+
+        PasswordResetToken resetToken = new PasswordResetToken();
+        resetToken.setUserId(user.getUserId());
+        resetToken.setToken(token);
+        resetToken.setExpiresAt(expiresAt);
+        passwordResetTokenRepository.save(resetToken);
+        return token;
+    }
+
+    @Override
+    public Optional<Redemption> redeem(String token, Instant now) {
+        Optional<PasswordResetToken> resetToken = passwordResetTokenRepository.findByTokenAndExpiresAtAfterAndUsedFalse(token, now);
+        if (resetToken.isEmpty()) {
+            return Optional.empty();
+        }
+        return userRepository.findByResetToken(token, now, UserMinimalProjection.class)
+                .map(user -> new Redemption() {
+                    @Override
+                    public UUID getUserId() {
+                        return user.getUserId();
+                    }
+
+                    @Override
+                    public String getEmail() {
+                        return user.getEmail();
+                    }
+
+                    @Override
+                    public boolean complete(String newPasswordHash) {
+                        User userEntity = userRepository.findById(user.getUserId())
+                                .orElseThrow(() -> new IllegalStateException("User not found"));
+                        userEntity.setPassword(newPasswordHash);
+                        userRepository.save(userEntity);
+
+                        resetToken.get().setUsed(true);
+                        passwordResetTokenRepository.save(resetToken.get());
+                        return true;
+                    }
+                });
+    }
+}
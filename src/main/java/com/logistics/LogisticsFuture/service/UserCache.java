@@ -0,0 +1,126 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logistics.LogisticsFuture.projection.UserAuthProjection;
+import com.logistics.LogisticsFuture.projection.UserMinimalProjection;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Size- and time-bounded cache of the user columns the auth paths read (id, email, password hash),
+ * keyed by user id and by email. Only users that exist are cached, so creating a user needs no
+ * invalidation; changing one does, through {@link #evict}, which is repeated once the surrounding
+ * transaction completes so a concurrent load cannot put the old row back. Entries are per instance:
+ * on a cluster another node may serve a changed password hash for up to {@code ttl}, so keep it short.
+ * Hit, miss and eviction counts are published as {@code cache.*} meters tagged {@code users.by-id}
+ * and {@code users.by-email}.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Cache<UUID, CachedUser> byId;
+    private final Cache<String, CachedUser> byEmail;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${users.cache.enabled:true}") boolean enabled,
+                     @Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.byEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+            CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.by-email");
+        }
+    }
+
+    public Optional<UserAuthProjection> findByEmail(String email) {
+        if (!enabled) {
+            return userRepository.findByEmail(email, UserAuthProjection.class);
+        }
+        return Optional.ofNullable(byEmail.get(email, key -> userRepository.findByEmail(key, UserAuthProjection.class)
+                .map(CachedUser::of)
+                .orElse(null)));
+    }
+
+    public Optional<UserAuthProjection> findByUserId(UUID userId) {
+        if (!enabled) {
+            return userRepository.findByUserId(userId, UserAuthProjection.class);
+        }
+        return Optional.ofNullable(byId.get(userId, key -> userRepository.findByUserId(key, UserAuthProjection.class)
+                .map(CachedUser::of)
+                .orElse(null)));
+    }
+
+    /**
+     * Drops the user under both keys; either may be null when unknown. Call it wherever the row changes.
+     */
+    public void evict(UUID userId, String email) {
+        if (!enabled) {
+            return;
+        }
+        evictNow(userId, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(userId, email);
+                }
+            });
+        }
+    }
+
+    public long size() {
+        return byId.estimatedSize() + byEmail.estimatedSize();
+    }
+
+    private void evictNow(UUID userId, String email) {
+        if (userId != null) {
+            CachedUser cached = byId.asMap().remove(userId);
+            if (cached != null) {
+                byEmail.invalidate(cached.email());
+            }
+        }
+        if (email != null) {
+            CachedUser cached = byEmail.asMap().remove(email);
+            if (cached != null) {
+                byId.invalidate(cached.userId());
+            }
+        }
+    }
+
+    private record CachedUser(UUID userId, String email, String password) implements UserAuthProjection, UserMinimalProjection {
+        static CachedUser of(UserAuthProjection user) {
+            return new CachedUser(user.getUserId(), user.getEmail(), user.getPassword());
+        }
+
+        @Override
+        public UUID getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+
+        @Override
+        public String getPassword() {
+            return password;
+        }
+    }
+}
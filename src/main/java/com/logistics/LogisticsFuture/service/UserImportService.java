@@ -0,0 +1,318 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.LogisticsFuture.dto.RegisterRequest;
+import com.logistics.LogisticsFuture.dto.UserImportResponse;
+import com.logistics.LogisticsFuture.dto.UserImportResult;
+import com.logistics.LogisticsFuture.dto.UserImportResult.Status;
+import com.logistics.LogisticsFuture.exceptions.ServiceBusyException;
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users from a stream of {@link RegisterRequest} records, either a JSON array or
+ * newline-delimited JSON. The stream is read incrementally and processed in chunks of
+ * {@code user-import.chunk-size}: each chunk is validated, checked for existing emails and phone
+ * numbers with one {@code IN} query each, hashed in parallel on the password hashing pool and
+ * inserted in JDBC batches in its own transaction. Rows never fail the whole import; every row gets
+ * an entry in the report, including records that are not valid JSON. Newline-delimited input carries
+ * on with the next line after such a record; in a JSON array the rest of the body cannot be located,
+ * so the import stops there and reports the rows before it.
+ */
+@Service
+public class UserImportService {
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public UserImportService(UserRepository userRepository,
+                             PasswordHashingService passwordHashingService,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${user-import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        importedRows = Counter.builder("user.import.rows").tag("result", "imported").register(meterRegistry);
+        rejectedRows = Counter.builder("user.import.rows").tag("result", "rejected").register(meterRegistry);
+    }
+
+    public UserImportResponse importUsers(InputStream body) throws IOException {
+        List<UserImportResult> results = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenPhoneNumbers = new HashSet<>();
+
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int rowNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            if (startsWithArray(reader)) {
+                try (MappingIterator<JsonNode> rows = objectMapper.readerFor(JsonNode.class).readValues(reader)) {
+                    while (true) {
+                        JsonNode node;
+                        try {
+                            if (!rows.hasNextValue()) {
+                                break;
+                            }
+                            node = rows.nextValue();
+                        } catch (JsonProcessingException e) {
+                            // A parser cannot find the next element after a syntax error inside an array
+                            add(new Row(++rowNumber, null, "Malformed JSON, rows after this one were not read: "
+                                    + e.getOriginalMessage()), chunk, seenEmails, seenPhoneNumbers, results);
+                            break;
+                        }
+                        add(toRow(++rowNumber, node), chunk, seenEmails, seenPhoneNumbers, results);
+                    }
+                }
+            } else {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    Row row;
+                    try {
+                        row = toRow(rowNumber + 1, objectMapper.readTree(line));
+                    } catch (JsonProcessingException e) {
+                        row = new Row(rowNumber + 1, null, "Malformed JSON: " + e.getOriginalMessage());
+                    }
+                    rowNumber++;
+                    add(row, chunk, seenEmails, seenPhoneNumbers, results);
+                }
+            }
+        } finally {
+            // Rows read before a failure are still imported and reported
+            if (!chunk.isEmpty()) {
+                importChunk(drain(chunk), seenEmails, seenPhoneNumbers, results);
+            }
+        }
+
+        int imported = (int) results.stream().filter(result -> result.getStatus() == Status.IMPORTED).count();
+        importedRows.increment(imported);
+        rejectedRows.increment(results.size() - imported);
+        log.info("User import finished: {} imported, {} rejected", imported, results.size() - imported);
+        return UserImportResponse.builder()
+                .imported(imported)
+                .rejected(results.size() - imported)
+                .results(results)
+                .build();
+    }
+
+    private void add(Row row, List<Row> chunk, Set<String> seenEmails, Set<String> seenPhoneNumbers,
+                     List<UserImportResult> results) {
+        chunk.add(row);
+        if (chunk.size() == chunkSize) {
+            importChunk(drain(chunk), seenEmails, seenPhoneNumbers, results);
+        }
+    }
+
+    // Emptied before the rows are imported, so a chunk that fails cannot be imported a second time
+    private static List<Row> drain(List<Row> chunk) {
+        List<Row> rows = new ArrayList<>(chunk);
+        chunk.clear();
+        return rows;
+    }
+
+    private Row toRow(int number, JsonNode node) {
+        try {
+            return new Row(number, objectMapper.treeToValue(node, RegisterRequest.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(number, null, "Unreadable record: " + e.getOriginalMessage());
+        }
+    }
+
+    private static boolean startsWithArray(BufferedReader reader) throws IOException {
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c == -1) {
+                return false;
+            }
+            if (!Character.isWhitespace(c)) {
+                reader.reset();
+                return c == '[';
+            }
+        }
+    }
+
+    private void importChunk(List<Row> chunk, Set<String> seenEmails, Set<String> seenPhoneNumbers,
+                             List<UserImportResult> results) {
+        Map<Integer, UserImportResult> outcomes = new TreeMap<>();
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String problem = row.problem() != null ? row.problem() : validate(row.request());
+            if (problem != null) {
+                outcomes.put(row.number(), result(row, Status.INVALID, null, problem));
+            } else if (!seenEmails.add(row.request().getEmail())) {
+                outcomes.put(row.number(), result(row, Status.DUPLICATE, null, "Email appears earlier in the import"));
+            } else if (row.request().getPhoneNumber() != null && !seenPhoneNumbers.add(row.request().getPhoneNumber())) {
+                outcomes.put(row.number(), result(row, Status.DUPLICATE, null, "Phone number appears earlier in the import"));
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                    candidates.stream().map(row -> row.request().getEmail()).toList()));
+            List<String> phoneNumbers = candidates.stream()
+                    .map(row -> row.request().getPhoneNumber())
+                    .filter(Objects::nonNull)
+                    .toList();
+            Set<String> existingPhoneNumbers = phoneNumbers.isEmpty()
+                    ? new HashSet<String>()
+                    : new HashSet<>(userRepository.findExistingPhoneNumbers(phoneNumbers));
+
+            List<Row> toInsert = new ArrayList<>(candidates.size());
+            for (Row row : candidates) {
+                if (existingEmails.contains(row.request().getEmail())) {
+                    outcomes.put(row.number(), result(row, Status.DUPLICATE, null, "Email already exists"));
+                } else if (existingPhoneNumbers.contains(row.request().getPhoneNumber())) {
+                    outcomes.put(row.number(), result(row, Status.DUPLICATE, null, "Phone number already exists"));
+                } else {
+                    toInsert.add(row);
+                }
+            }
+            insert(toInsert, outcomes);
+        }
+        results.addAll(outcomes.values());
+    }
+
+    private void insert(List<Row> rows, Map<Integer, UserImportResult> outcomes) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> hashes;
+        try {
+            hashes = passwordHashingService.encodeAll(rows.stream().map(row -> row.request().getPassword()).toList());
+        } catch (ServiceBusyException e) {
+            log.warn("Password hashing busy, {} import rows not imported", rows.size());
+            rows.forEach(row -> outcomes.put(row.number(), result(row, Status.FAILED, null, "Password hashing busy, retry this row")));
+            return;
+        } catch (RuntimeException e) {
+            log.error("Password hashing failed for {} import rows", rows.size(), e);
+            rows.forEach(row -> outcomes.put(row.number(), result(row, Status.FAILED, null, "Import failed")));
+            return;
+        }
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            users.add(toUser(rows.get(i).request(), hashes.get(i)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(users);
+                entityManager.flush();
+            });
+            for (int i = 0; i < rows.size(); i++) {
+                outcomes.put(rows.get(i).number(), result(rows.get(i), Status.IMPORTED, users.get(i).getUserId(), null));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration took one of the emails between the check and the insert
+            log.warn("User import batch of {} rejected, inserting one by one: {}", rows.size(), e.getMessage());
+            entityManager.clear();
+            for (int i = 0; i < rows.size(); i++) {
+                insertOne(rows.get(i), toUser(rows.get(i).request(), hashes.get(i)), outcomes);
+            }
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private void insertOne(Row row, User user, Map<Integer, UserImportResult> outcomes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(user);
+                entityManager.flush();
+            });
+            outcomes.put(row.number(), result(row, Status.IMPORTED, user.getUserId(), null));
+        } catch (DataIntegrityViolationException e) {
+            entityManager.clear();
+            outcomes.put(row.number(), result(row, Status.DUPLICATE, null, "Email or phone number already exists"));
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            outcomes.put(row.number(), result(row, Status.FAILED, null, "Import failed"));
+        }
+    }
+
+    private String validate(RegisterRequest request) {
+        if (request == null) {
+            return "Empty record";
+        }
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!request.getPassword().equals(request.getConfirmPassword())) {
+            return "Passwords do not match";
+        }
+        return null;
+    }
+
+    private static User toUser(RegisterRequest request, String passwordHash) {
+        User user = new User();
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        user.setEmail(request.getEmail());
+        user.setPhoneNumber(request.getPhoneNumber());
+        user.setPassword(passwordHash);
+        user.setTermsAgreed(request.isTermsAgreed());
+        user.setMarketingAgreed(request.isMarketingAgreed());
+        user.setEnabled(true);
+        return user;
+    }
+
+    private static UserImportResult result(Row row, Status status, UUID userId, String message) {
+        return UserImportResult.builder()
+                .row(row.number())
+                .email(row.request() == null ? null : row.request().getEmail())
+                .status(status)
+                .userId(userId)
+                .message(message)
+                .build();
+    }
+
+    private record Row(int number, RegisterRequest request, String problem) {
+    }
+}
@@ -0,0 +1,252 @@
+package com.logistics.LogisticsFuture.utility;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory denylist of revoked access tokens, keyed by their {@code jti}, checked by
+ * {@link JwtAuthenticationFilter} on every authenticated request without any I/O.
+ * <p>
+ * A Bloom filter sits in front of an exact map of {@code jti -> exp}: almost every token is not revoked
+ * and is cleared by the filter with a few bit probes, and only filter hits (revoked tokens and the
+ * configured false-positive fraction) reach the map. Entries leave the map at the token's own expiry.
+ * Bloom filters cannot delete, so two generations are kept and rotated every access-token lifetime: a
+ * token revoked while one generation is current has expired before that generation is discarded.
+ * <p>
+ * Revoking all of a user's sessions records a per-user cutoff instead: access tokens of that user issued
+ * before the revocation are rejected until they have all expired, while one issued right after it, such as
+ * the user signing in again, is accepted. Order is decided by the time-ordered {@code jti}, not by the
+ * second-resolution {@code iat}.
+ * <p>
+ * Revocations are local to this instance; with several instances each one only knows about the logouts
+ * it served.
+ */
+@Component
+public class AccessTokenDenylist {
+    private final long rotationNanos;
+    private final Duration accessTokenLifetime;
+    private final int bitCount;
+    private final int hashCount;
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    // user id -> a UUIDv7 generated at the revocation, compared with the jti of the user's access tokens
+    private final ConcurrentHashMap<UUID, UUID> revokedBefore = new ConcurrentHashMap<>();
+    private volatile Generation current;
+    private volatile Generation previous;
+    private final ReentrantLock rotationLock = new ReentrantLock();
+
+    private final Counter clear;
+    private final Counter falsePositives;
+    private final Counter hits;
+
+    public AccessTokenDenylist(@Value("${jwt.expiration}") long accessTokenExpiration,
+                               @Value("${jwt.denylist.expected-revocations:100000}") int expectedRevocations,
+                               @Value("${jwt.denylist.false-positive-rate:0.001}") double falsePositiveRate,
+                               MeterRegistry meterRegistry) {
+        this.accessTokenLifetime = Duration.ofMillis(accessTokenExpiration);
+        this.rotationNanos = accessTokenLifetime.toNanos();
+        // Standard Bloom sizing: m = -n ln p / (ln 2)^2 bits, k = m / n ln 2 probes
+        long bits = (long) Math.ceil(-expectedRevocations * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedRevocations * Math.log(2)));
+        this.current = new Generation(bitCount, System.nanoTime());
+        this.previous = new Generation(bitCount, System.nanoTime());
+
+        clear = Counter.builder("jwt.denylist.checks").tag("result", "clear").register(meterRegistry);
+        falsePositives = Counter.builder("jwt.denylist.checks").tag("result", "false_positive").register(meterRegistry);
+        hits = Counter.builder("jwt.denylist.checks").tag("result", "revoked").register(meterRegistry);
+        Gauge.builder("jwt.denylist.size", revoked, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("jwt.denylist.bloom.bytes", this, AccessTokenDenylist::bloomBytes).register(meterRegistry);
+        Gauge.builder("jwt.denylist.bloom.false.positive.rate", this, AccessTokenDenylist::estimatedFalsePositiveRate)
+                .register(meterRegistry);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revoked.put(tokenId, expiresAt);
+        rotateIfDue();
+        long hash = hash(tokenId);
+        current.add(hash, hashCount);
+    }
+
+    /**
+     * Revokes every access token of the user issued before this call; tokens issued after it stay valid.
+     */
+    public void revokeIssuedBefore(UUID userId) {
+        revokedBefore.merge(userId, UuidV7.generate(), (a, b) -> compareIssueOrder(a, b) >= 0 ? a : b);
+        rotateIfDue();
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        if (!revokedBefore.isEmpty()) {
+            UUID cutoff = revokedBefore.get(claims.userId());
+            if (cutoff != null && issuedBefore(claims, cutoff)) {
+                hits.increment();
+                return true;
+            }
+        }
+        return isRevoked(claims.tokenId());
+    }
+
+    // Access token ids are UUIDv7, ordered to the millisecond and strictly within this JVM
+    private boolean issuedBefore(TokenClaims claims, UUID cutoff) {
+        UUID tokenId = parse(claims.tokenId());
+        if (tokenId != null && tokenId.version() == 7) {
+            return compareIssueOrder(tokenId, cutoff) < 0;
+        }
+        // Tokens from before time-ordered ids only know their issue second, from exp minus the fixed lifetime;
+        // they are rejected if issued in the cutoff's second at all
+        long issuedSecond = claims.expiresAt().minus(accessTokenLifetime).getEpochSecond();
+        return issuedSecond <= UuidV7.timestamp(cutoff) / 1000;
+    }
+
+    // Timestamp and counter live in the most significant bits; the rest is random
+    private static int compareIssueOrder(UUID a, UUID b) {
+        return Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+    }
+
+    private static UUID parse(String tokenId) {
+        if (tokenId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(tokenId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tokens minted before access tokens carried a {@code jti} cannot be revoked and are never reported.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        long hash = hash(tokenId);
+        if (!current.mightContain(hash, hashCount) && !previous.mightContain(hash, hashCount)) {
+            clear.increment();
+            return false;
+        }
+        Instant expiresAt = revoked.get(tokenId);
+        if (expiresAt == null) {
+            falsePositives.increment();
+            return false;
+        }
+        if (!expiresAt.isAfter(Instant.now())) {
+            revoked.remove(tokenId, expiresAt);
+            falsePositives.increment();
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    public long bloomBytes() {
+        return 2L * bitCount / 8;
+    }
+
+    /**
+     * Expected false-positive rate of a check right now, from the fill of both generations: (fill)^k each.
+     */
+    public double estimatedFalsePositiveRate() {
+        double currentRate = Math.pow((double) current.bitsSet() / bitCount, hashCount);
+        double previousRate = Math.pow((double) previous.bitsSet() / bitCount, hashCount);
+        return 1 - (1 - currentRate) * (1 - previousRate);
+    }
+
+    // A lock rather than synchronized: this runs on request threads, which may be virtual
+    private void rotateIfDue() {
+        rotationLock.lock();
+        try {
+            long now = System.nanoTime();
+            if (now - current.createdAt < rotationNanos) {
+                return;
+            }
+            previous = current;
+            current = new Generation(bitCount, now);
+            revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(Instant.now()));
+            long oldestLiveIssue = Instant.now().minus(accessTokenLifetime).toEpochMilli();
+            revokedBefore.values().removeIf(cutoff -> UuidV7.timestamp(cutoff) < oldestLiveIssue);
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    // 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer; no allocation
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+        private final int bitCount;
+        private final long createdAt;
+
+        Generation(int bitCount, long createdAt) {
+            this.words = new AtomicLongArray((bitCount + 63) / 64);
+            this.bitCount = bitCount;
+            this.createdAt = createdAt;
+        }
+
+        // Double hashing (Kirsch-Mitzenmacher): probe i is h1 + i * h2
+        void add(long hash, int hashCount) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                int index = bit >>> 6;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+            }
+        }
+
+        boolean mightContain(long hash, int hashCount) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long bitsSet() {
+            long count = 0;
+            for (int i = 0; i < words.length(); i++) {
+                count += Long.bitCount(words.get(i));
+            }
+            return count;
+        }
+    }
+}
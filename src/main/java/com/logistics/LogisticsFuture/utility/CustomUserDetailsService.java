@@ -1,11 +1,12 @@
 package com.logistics.LogisticsFuture.utility;
 
 import com.logistics.LogisticsFuture.projection.UserAuthProjection;
-import com.logistics.LogisticsFuture.repository.UserRepository;
+import com.logistics.LogisticsFuture.service.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import java.util.List;
@@ -13,17 +14,19 @@ import java.util.UUID;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomUserDetailsService(UserCache userCache) {
+        this.userCache = userCache;
     }
 
+    // Read-only, so a cache miss is served by the replica when one is configured
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String userId) throws UsernameNotFoundException {
         UUID uuid = UUID.fromString(userId);
 
-        UserAuthProjection user = userRepository.findByUserId(uuid, UserAuthProjection.class)
+        UserAuthProjection user = userCache.findByUserId(uuid)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
 
         return org.springframework.security.core.userdetails.User.withUsername(user.getUserId().toString())
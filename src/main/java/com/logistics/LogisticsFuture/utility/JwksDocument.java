@@ -0,0 +1,7 @@
+package com.logistics.LogisticsFuture.utility;
+
+/**
+ * The serialized JSON Web Key Set of the verification keys, built once per key configuration.
+ */
+public record JwksDocument(byte[] json, String etag) {
+}
@@ -15,19 +15,29 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AccessTokenDenylist accessTokenDenylist;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
             throws ServletException, IOException {
         String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if (jwtTokenProvider.validateToken(token) && "access".equals(jwtTokenProvider.getTokenType(token))) {
-                String userId = String.valueOf(jwtTokenProvider.getUserIdFromToken(token));
+            Optional<TokenClaims> claims = verifiedTokenCache.get(token);
+            if (claims.isEmpty()) {
+                claims = jwtTokenProvider.verify(token);
+                claims.filter(TokenClaims::isAccessToken).ifPresent(verified -> verifiedTokenCache.put(token, verified));
+            }
+            // Checked on cache hits too: a token can be revoked after it was cached
+            if (claims.isPresent() && claims.get().isAccessToken() && !accessTokenDenylist.isRevoked(claims.get())) {
+                String userId = claims.get().userId().toString();
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
                         userId, null, null);
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
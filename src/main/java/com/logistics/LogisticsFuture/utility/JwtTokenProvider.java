@@ -1,75 +1,243 @@
 package com.logistics.LogisticsFuture.utility;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.interfaces.ECKey;
 import java.time.Instant;
-import java.util.Date;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Mints and verifies access and refresh tokens.
+ * <p>
+ * Signing: with {@code jwt.signing.key} set to a private JWK (EC P-256 or Ed25519), tokens are signed with
+ * ES256 or EdDSA and carry the key's {@code kid}, and downstream services verify them locally against
+ * {@code /.well-known/jwks.json}. Without it tokens are signed with the shared HMAC {@code jwt.secret}.
+ * <p>
+ * Rotation: publish the next public key in {@code jwt.signing.additional-keys} first, so consumers' cached
+ * key sets already know it; then make it the signing key and move the old public key to the additional keys
+ * for one refresh-token lifetime. Verification keys are indexed by {@code kid}. While moving off HMAC,
+ * {@code jwt.signing.accept-hmac} keeps tokens signed with the secret (they have no {@code kid}) valid.
+ */
 @Component
 public class JwtTokenProvider {
-    @Value("${jwt.secret}")
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Value("${jwt.secret:}")
     private String secret;
 
+    @Value("${jwt.signing.key:}")
+    private String signingJwk;
+
+    @Value("${jwt.signing.additional-keys:}")
+    private String additionalJwks;
+
+    @Value("${jwt.signing.accept-hmac:true}")
+    private boolean acceptHmac;
+
     @Value("${jwt.expiration}")
     private long accessTokenExpiration;
 
     @Value("${jwt.refresh.expiration}")
     private long refreshTokenExpiration;
 
+    // Falls back to the global registry when constructed outside Spring, as in tests and benchmarks
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private SecretKey hmacKey;
+    private PrivateKey signingKey;
+    private SignatureAlgorithm signatureAlgorithm;
+    private String signingKeyId;
+    private Map<String, Key> verificationKeys;
+    private JwksDocument jwks;
+
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private JwtParser parser;
+
+    private Timer signTime;
+    private Timer verifyValidTime;
+    private Timer verifyInvalidTime;
+
+    @PostConstruct
+    void init() {
+        Map<String, Key> keys = new HashMap<>();
+        List<Map<String, Object>> published = new ArrayList<>();
+
+        if (signingJwk != null && !signingJwk.isBlank()) {
+            if (!(Jwks.parser().build().parse(signingJwk) instanceof PrivateJwk<?, ?, ?> privateJwk)) {
+                throw new IllegalStateException("jwt.signing.key must be a private JWK");
+            }
+            signingKey = (PrivateKey) privateJwk.toKey();
+            signatureAlgorithm = signingKey instanceof ECKey ? Jwts.SIG.ES256 : Jwts.SIG.EdDSA;
+            signingKeyId = publish(privateJwk.toPublicJwk(), signatureAlgorithm.getId(), keys, published);
+        }
+        if (additionalJwks != null && !additionalJwks.isBlank()) {
+            for (Jwk<?> jwk : Jwks.setParser().build().parse(additionalJwks)) {
+                if (!(jwk instanceof PublicJwk<?> publicJwk)) {
+                    throw new IllegalStateException("jwt.signing.additional-keys may only contain public keys");
+                }
+                publish(publicJwk, jwk.getAlgorithm(), keys, published);
+            }
+        }
+        if (secret != null && !secret.isEmpty() && (signingKey == null || acceptHmac)) {
+            hmacKey = Keys.hmacShaKeyFor(secret.getBytes());
+        }
+        if (signingKey == null && hmacKey == null) {
+            throw new IllegalStateException("Set jwt.signing.key or jwt.secret");
+        }
+        verificationKeys = Map.copyOf(keys);
+        jwks = serialize(published);
+
+        Locator<Key> keyLocator = header -> {
+            String keyId = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+            Key key = keyId != null ? verificationKeys.get(keyId) : hmacKey;
+            if (key == null) {
+                throw new InvalidKeyException("No verification key for kid " + keyId);
+            }
+            return key;
+        };
+        parser = Jwts.parser()
+                .keyLocator(keyLocator)
+                .build();
+
+        signTime = Timer.builder("jwt.operation").tag("operation", "sign").tag("outcome", "success").register(meterRegistry);
+        verifyValidTime = Timer.builder("jwt.operation").tag("operation", "verify").tag("outcome", "valid").register(meterRegistry);
+        verifyInvalidTime = Timer.builder("jwt.operation").tag("operation", "verify").tag("outcome", "invalid").register(meterRegistry);
+    }
+
     public String generateToken(UUID userId, String email) {
+        long start = System.nanoTime();
         Instant now = Instant.now();
         Instant expiry = now.plusMillis(accessTokenExpiration);
-        return Jwts.builder()
+        // The jti is what a revoked access token is denylisted by; time-ordered, so it also orders tokens by issue
+        String token = signed(Jwts.builder())
+                .id(UuidV7.generate().toString())
                 .subject(userId.toString())
+                .claim("type", TokenClaims.ACCESS)
                 .claim("email", email)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
                 .compact();
+        signTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
     public String generateRefreshToken(UUID userId) {
+        long start = System.nanoTime();
         Instant now = Instant.now();
         Instant expiry = now.plusMillis(refreshTokenExpiration);
-        return Jwts.builder()
+        // The random jti keeps two refresh tokens minted in the same second distinct, their digests are unique
+        String token = signed(Jwts.builder())
+                .id(UUID.randomUUID().toString())
                 .subject(userId.toString())
+                .claim("type", TokenClaims.REFRESH)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
                 .compact();
+        signTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
+    }
+
+    /**
+     * The public verification keys as a JWK Set, serialized once at startup.
+     */
+    public JwksDocument jwks() {
+        return jwks;
+    }
+
+    /**
+     * Verifies the signature and expiry of the token exactly once and returns its claims,
+     * or an empty result if the token is malformed, tampered with or expired.
+     */
+    public Optional<TokenClaims> verify(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            TokenClaims verified = new TokenClaims(
+                    UUID.fromString(claims.getSubject()),
+                    claims.get("type", String.class),
+                    claims.get("email", String.class),
+                    claims.getExpiration().toInstant(),
+                    claims.getId());
+            verifyValidTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            verifyInvalidTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.empty();
+        }
     }
 
     public UUID getUserIdFromToken(String token) {
-        return UUID.fromString(Jwts.parser()
-                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes()))
-                .build()
-                .parseSignedClaims(token)
+        return UUID.fromString(parser.parseSignedClaims(token)
                 .getPayload()
                 .getSubject());
     }
+
     public String getTokenType(String token) {
-        return Jwts.parser()
-                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes()))
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload()
                 .get("type", String.class);
     }
 
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    private JwtBuilder signed(JwtBuilder builder) {
+        if (signingKey == null) {
+            return builder.signWith(hmacKey);
+        }
+        return builder.header().keyId(signingKeyId).and().signWith(signingKey, signatureAlgorithm);
+    }
+
+    private static String publish(PublicJwk<?> publicJwk, String algorithm, Map<String, Key> keys, List<Map<String, Object>> published) {
+        String keyId = publicJwk.getId() != null ? publicJwk.getId() : publicJwk.thumbprint().toString();
+        keys.put(keyId, publicJwk.toKey());
+
+        Map<String, Object> entry = new LinkedHashMap<>(publicJwk);
+        entry.put("kid", keyId);
+        entry.put("use", "sig");
+        if (algorithm != null) {
+            entry.put("alg", algorithm);
+        }
+        published.add(entry);
+        return keyId;
+    }
+
+    private static JwksDocument serialize(List<Map<String, Object>> keys) {
         try {
-            Jwts.parser()
-                    .verifyWith(Keys.hmacShaKeyFor(secret.getBytes()))
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] json = JSON.writeValueAsBytes(Map.of("keys", keys));
+            String etag = "\"" + TokenDigests.sha256Base64(new String(json, StandardCharsets.UTF_8)) + "\"";
+            return new JwksDocument(json, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the JWK Set", e);
         }
     }
 }
@@ -0,0 +1,99 @@
+package com.logistics.LogisticsFuture.utility;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by an arbitrary string, allowing {@code limit} requests per
+ * {@code period} with bursts of up to {@code limit}. Each bucket is a single {@link AtomicLong}
+ * holding its theoretical arrival time (the generic cell rate algorithm), updated with a CAS loop,
+ * so concurrent requests for the same key never block each other.
+ * <p>
+ * A bucket whose arrival time has passed is full again and carries no state, so idle keys are
+ * dropped by {@link #evictIdle()} and whenever the key bound is reached. If every tracked key is
+ * still active at the bound, arbitrary keys are dropped and briefly get a fresh budget.
+ */
+public class RequestThrottle {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * @param limit   requests allowed per period; zero or less disables the throttle
+     * @param period  window the limit applies to
+     * @param maxKeys upper bound on the number of tracked keys
+     */
+    public RequestThrottle(int limit, Duration period, int maxKeys) {
+        this.emissionIntervalNanos = limit > 0 ? period.toNanos() / limit : 0;
+        this.burstToleranceNanos = limit > 0 ? period.toNanos() - emissionIntervalNanos : 0;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes one request from the key's budget.
+     *
+     * @return {@link Duration#ZERO} when the request is allowed, otherwise how long until it would be
+     */
+    public Duration tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    Duration tryAcquire(String key, long now) {
+        if (emissionIntervalNanos == 0) {
+            return Duration.ZERO;
+        }
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                makeRoom(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            long wait = start - burstToleranceNanos - now;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (bucket.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Only one thread sweeps at a time; the others insert regardless and the bound is briefly exceeded
+    private void makeRoom(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictIdle(now);
+            int target = maxKeys - Math.max(1, maxKeys / 10);
+            Iterator<String> keys = buckets.keySet().iterator();
+            while (buckets.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
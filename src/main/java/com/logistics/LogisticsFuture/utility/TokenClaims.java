@@ -0,0 +1,21 @@
+package com.logistics.LogisticsFuture.utility;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable view of the claims of a token whose signature has already been verified
+ * by {@link JwtTokenProvider#verify(String)}.
+ */
+public record TokenClaims(UUID userId, String type, String email, Instant expiresAt, String tokenId) {
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    public boolean isAccessToken() {
+        return ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH.equals(type);
+    }
+}
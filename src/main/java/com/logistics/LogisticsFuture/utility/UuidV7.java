@@ -0,0 +1,48 @@
+package com.logistics.LogisticsFuture.utility;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): a 48-bit Unix millisecond timestamp, then a 12-bit counter,
+ * then 62 random bits. New ids sort after earlier ones, so primary-key inserts land on the right edge of
+ * the B-tree instead of splitting pages all over it.
+ * <p>
+ * The timestamp and counter share one {@link AtomicLong} advanced with a CAS loop, which keeps ids strictly
+ * increasing within this JVM even when the wall clock stalls or steps back; a counter overflow borrows the
+ * next millisecond. Random bits come from {@link ThreadLocalRandom}, so generating an id allocates nothing
+ * but the {@link UUID} itself. Ids are unique, not secret: nothing that must be unguessable should be one.
+ */
+public final class UuidV7 {
+    private static final AtomicLong lastTimeAndCounter = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    static UUID generate(long epochMillis) {
+        long floor = epochMillis << 12;
+        long timeAndCounter;
+        while (true) {
+            long last = lastTimeAndCounter.get();
+            timeAndCounter = Math.max(last + 1, floor);
+            if (lastTimeAndCounter.compareAndSet(last, timeAndCounter)) {
+                break;
+            }
+        }
+        long mostSignificantBits = ((timeAndCounter >>> 12) << 16) | 0x7000L | (timeAndCounter & 0xFFFL);
+        long leastSignificantBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * The Unix millisecond timestamp embedded in a version 7 UUID.
+     */
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,118 @@
+package com.logistics.LogisticsFuture.utility;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of access tokens whose signature has already been verified,
+ * keyed by the SHA-256 digest of the token so raw bearer tokens are never kept in memory.
+ * Entries expire at the token's own {@code exp}; when the size bound is reached expired
+ * entries are swept first and then arbitrary entries are dropped until there is room again.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final boolean enabled;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, TokenClaims> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:false}") boolean enabled,
+                              @Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+
+        FunctionCounter.builder("jwt.cache.gets", hits, LongAdder::sum).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.gets", misses, LongAdder::sum).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("jwt.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("jwt.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public Optional<TokenClaims> get(String token) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = TokenDigests.sha256Base64(token);
+        TokenClaims claims = entries.get(key);
+        if (claims == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (!claims.expiresAt().isAfter(Instant.now())) {
+            if (entries.remove(key, claims)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(claims);
+    }
+
+    public void put(String token, TokenClaims claims) {
+        if (!enabled) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            makeRoom();
+        }
+        entries.put(TokenDigests.sha256Base64(token), claims);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Only one thread sweeps at a time; the others insert regardless and the bound is briefly exceeded
+    private void makeRoom() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            entries.entrySet().removeIf(entry -> {
+                boolean expired = !entry.getValue().expiresAt().isAfter(now);
+                if (expired) {
+                    evictions.increment();
+                }
+                return expired;
+            });
+
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<String> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.increment();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- Moves refresh_tokens from the plaintext JWT to its SHA-256 digest, contract step of
+-- db/migration/V2__refresh_token_digest. Kept out of db/migration so it cannot ship in the same
+-- release: add classpath:db/contract to FLYWAY_LOCATIONS only once no instance that reads the
+-- plaintext token is left, since from here on such an instance can neither find nor store sessions.
+-- Flyway refuses to apply it out of order, so it must stay the next version after db/migration.
+
+DROP TRIGGER refresh_tokens_fill_token_hash ON refresh_tokens;
+DROP FUNCTION refresh_tokens_fill_token_hash();
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_tokens DROP COLUMN token;
+
+ANALYZE refresh_tokens;
+-- Dropping the column does not return its space; in a maintenance window (it takes an exclusive lock):
+-- VACUUM FULL refresh_tokens;
@@ -0,0 +1,36 @@
+-- Schema as previously created by Hibernate ddl-auto: update, before Flyway took over. Databases that
+-- already have these tables are baselined at this version (spring.flyway.baseline-on-migrate) and are
+-- brought forward by V2 onwards, so nothing added since then may appear here. Constraint names differ
+-- on such databases, where Hibernate generated them.
+
+CREATE TABLE users (
+    user_id          uuid         NOT NULL,
+    first_name       varchar(255) NOT NULL,
+    last_name        varchar(255) NOT NULL,
+    email            varchar(255) NOT NULL,
+    phone_number     varchar(255),
+    password         varchar(255) NOT NULL,
+    terms_agreed     boolean      NOT NULL,
+    marketing_agreed boolean      NOT NULL,
+    enabled          boolean      NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (user_id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_phone_number UNIQUE (phone_number)
+);
+
+CREATE TABLE refresh_tokens (
+    id         uuid                        NOT NULL,
+    user_id    uuid                        NOT NULL,
+    token      varchar(255)                NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id)
+);
+
+CREATE TABLE password_reset_tokens (
+    id         uuid                        NOT NULL,
+    user_id    uuid                        NOT NULL,
+    token      varchar(255)                NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    used       boolean                     NOT NULL,
+    CONSTRAINT pk_password_reset_tokens PRIMARY KEY (id)
+);
@@ -0,0 +1,31 @@
+-- Moves refresh_tokens from the plaintext JWT to its SHA-256 digest, expand step. Nothing is dropped,
+-- so instances of the previous release keep working while the new one rolls out: a trigger fills
+-- token_hash for every row they write, and existing sessions survive because the digest is computed
+-- from the stored token. The plaintext column is dropped by db/contract/V6 in a later release.
+-- While both releases run, a session started on a new instance is unknown to the old ones, since the
+-- new release no longer writes the plaintext token; keep that window to the rollout itself.
+
+ALTER TABLE refresh_tokens ADD COLUMN token_hash bytea;
+-- The new release inserts digest-only rows
+ALTER TABLE refresh_tokens ALTER COLUMN token DROP NOT NULL;
+
+CREATE FUNCTION refresh_tokens_fill_token_hash() RETURNS trigger AS $$
+BEGIN
+    IF NEW.token IS NOT NULL THEN
+        NEW.token_hash := sha256(convert_to(NEW.token, 'UTF8'));
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER refresh_tokens_fill_token_hash BEFORE INSERT OR UPDATE OF token ON refresh_tokens
+    FOR EACH ROW EXECUTE FUNCTION refresh_tokens_fill_token_hash();
+
+UPDATE refresh_tokens SET token_hash = sha256(convert_to(token, 'UTF8'));
+-- Identical tokens could be issued twice within one second before refresh tokens carried a jti
+DELETE FROM refresh_tokens a USING refresh_tokens b
+    WHERE a.token_hash = b.token_hash AND a.id < b.id;
+
+-- Built inside the migration's transaction, so refresh and logout wait for it; the table only holds
+-- live sessions
+ALTER TABLE refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
@@ -0,0 +1,7 @@
+-- Digest of the token a session was rotated from, so a replay of an already rotated token can be
+-- recognised. Only rotated sessions have one, and only those are indexed.
+
+ALTER TABLE refresh_tokens ADD COLUMN previous_token_hash bytea;
+
+CREATE INDEX idx_refresh_tokens_previous_token_hash ON refresh_tokens (previous_token_hash)
+    WHERE previous_token_hash IS NOT NULL;
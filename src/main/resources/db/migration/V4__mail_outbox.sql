@@ -0,0 +1,26 @@
+-- Outgoing mail, written in the same transaction as the change that triggers it and sent by
+-- MailOutboxDispatcher.
+
+CREATE TABLE mail_outbox (
+    id              uuid                        NOT NULL,
+    recipient       varchar(255)                NOT NULL,
+    subject         varchar(255)                NOT NULL,
+    body            text                        NOT NULL,
+    status          varchar(16)                 NOT NULL,
+    attempts        integer                     NOT NULL,
+    created_at      timestamp(6) with time zone NOT NULL,
+    next_attempt_at timestamp(6) with time zone NOT NULL,
+    sent_at         timestamp(6) with time zone,
+    last_error      varchar(1000),
+    CONSTRAINT pk_mail_outbox PRIMARY KEY (id),
+    CONSTRAINT ck_mail_outbox_status CHECK (status IN ('PENDING', 'SENT', 'DEAD'))
+);
+
+-- Outbox polling and the pending gauge only read PENDING rows
+CREATE INDEX idx_mail_outbox_pending_next_attempt ON mail_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
+
+-- Sent and dead messages are purged by the token reaper once they are older than
+-- mail.outbox.retention; their bodies hold reset links that should not outlive the audit window
+CREATE INDEX idx_mail_outbox_finished_created_at ON mail_outbox (created_at)
+    WHERE status IN ('SENT', 'DEAD');
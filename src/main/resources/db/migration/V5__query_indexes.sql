@@ -0,0 +1,17 @@
+-- Indexes shaped after the repository queries; QueryPlanTests fails if one of them stops being used.
+
+-- Sessions of one user: session listing and revocation, and deleting a user's tokens
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+
+-- Token reaper
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+CREATE INDEX idx_password_reset_tokens_expires_at ON password_reset_tokens (expires_at);
+
+-- Reset token lookup (token = ? AND expires_at > ? AND NOT used, alone and joined to users).
+-- Used tokens are excluded, so the index only holds tokens that can still be redeemed.
+CREATE INDEX idx_password_reset_tokens_token ON password_reset_tokens (token, expires_at)
+    WHERE NOT used;
+
+-- Token reaper: used OR expires_at < ? is answered as a BitmapOr of this and the expires_at index
+CREATE INDEX idx_password_reset_tokens_used ON password_reset_tokens (expires_at)
+    WHERE used;
@@ -0,0 +1,51 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.logistics.LogisticsFuture.service.AuditEventType;
+import com.logistics.LogisticsFuture.service.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost on the calling thread of recording an audit event, against the synchronous stdout line it replaced.
+ * Run with several threads ({@code -t 4}) to see contention on the ring's claim counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditLogBenchmark {
+    @Param({"drop", "block"})
+    public String fullPolicy;
+
+    AuditLog auditLog;
+    final UUID userId = UUID.randomUUID();
+
+    @Setup
+    public void setUp() {
+        auditLog = new AuditLog(new SimpleMeterRegistry(), true, "target/audit-benchmark", 8192, fullPolicy,
+                DataSize.ofMegabytes(64), 2);
+        auditLog.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditLog.close();
+        System.out.printf("%n%s: %d written, %d dropped%n", fullPolicy, auditLog.writtenCount(), auditLog.droppedCount());
+    }
+
+    @Benchmark
+    public void record() {
+        auditLog.record(AuditEventType.LOGIN_SUCCEEDED, userId, "driver@example.com");
+    }
+
+    @Benchmark
+    public void printlnToStdout() {
+        System.out.println("User logged in: driver@example.com");
+    }
+}
@@ -0,0 +1,60 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.LogisticsFuture.dto.AuthResponse;
+import com.logistics.LogisticsFuture.dto.RegisterRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private AuthResponse authResponse;
+    private RegisterRequest registerRequest;
+    private String registerRequestJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        JwtTokenProviderBenchmark tokens = new JwtTokenProviderBenchmark();
+        tokens.setUp();
+        authResponse = new AuthResponse();
+        authResponse.setToken(tokens.generateToken());
+        authResponse.setRefreshToken(tokens.generateRefreshToken());
+
+        registerRequest = RegisterRequest.builder()
+                .firstName("Ama")
+                .lastName("Mensah")
+                .email("ama.mensah@example.com")
+                .phoneNumber("+233201234567")
+                .password("Correct-Horse-42")
+                .confirmPassword("Correct-Horse-42")
+                .termsAgreed(true)
+                .build();
+        registerRequestJson = objectMapper.writeValueAsString(registerRequest);
+    }
+
+    @Benchmark
+    public byte[] serializeAuthResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(authResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeRegisterRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(registerRequest);
+    }
+
+    @Benchmark
+    public RegisterRequest deserializeRegisterRequest() throws JsonProcessingException {
+        return objectMapper.readValue(registerRequestJson, RegisterRequest.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.logistics.LogisticsFuture.utility.AccessTokenDenylist;
+import com.logistics.LogisticsFuture.utility.JwtAuthenticationFilter;
+import com.logistics.LogisticsFuture.utility.JwtTokenProvider;
+import com.logistics.LogisticsFuture.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full pass of an authenticated request through {@link JwtAuthenticationFilter}, with and without
+ * the verified-token cache, and with an empty or well-filled access-token denylist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"0", "50000"})
+    public int revokedTokens;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider jwtTokenProvider = BenchmarkFixtures.jwtTokenProvider();
+        VerifiedTokenCache cache = new VerifiedTokenCache(cacheEnabled, 10_000, new SimpleMeterRegistry());
+        AccessTokenDenylist denylist = new AccessTokenDenylist(900_000L, 100_000, 0.001, new SimpleMeterRegistry());
+        for (int i = 0; i < revokedTokens; i++) {
+            denylist.revoke(UUID.randomUUID().toString(), Instant.now().plusSeconds(900));
+        }
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, cache, denylist);
+        authorizationHeader = "Bearer " + jwtTokenProvider.generateToken(UUID.randomUUID(), "driver@example.com");
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/logisticsFuture/shipments");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
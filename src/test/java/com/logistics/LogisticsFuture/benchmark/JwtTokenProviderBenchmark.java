@@ -0,0 +1,48 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.logistics.LogisticsFuture.utility.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification cost per algorithm: the shared HMAC secret against the asymmetric keys
+ * that let other services verify tokens from the published JWKS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+    @Param({"HS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UUID userId;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = BenchmarkFixtures.jwtTokenProvider(algorithm);
+        userId = UUID.randomUUID();
+        accessToken = jwtTokenProvider.generateToken(userId, "driver@example.com");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(userId, "driver@example.com");
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtTokenProvider.generateRefreshToken(userId);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(accessToken);
+    }
+}
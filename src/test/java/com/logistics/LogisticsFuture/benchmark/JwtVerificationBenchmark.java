@@ -0,0 +1,66 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.logistics.LogisticsFuture.utility.JwtTokenProvider;
+import com.logistics.LogisticsFuture.utility.TokenClaims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token: the previous filter path, which rebuilt
+ * the key and parser and verified the signature three times, against the single {@code verify} call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = BenchmarkFixtures.jwtTokenProvider();
+        token = jwtTokenProvider.generateToken(UUID.randomUUID(), "driver@example.com");
+    }
+
+    @Benchmark
+    public UUID threeParsesPerRequest() {
+        if (validate(token) && "access".equals(tokenType(token))) {
+            return userId(token);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public UUID singleVerify() {
+        Optional<TokenClaims> claims = jwtTokenProvider.verify(token);
+        return claims.filter(TokenClaims::isAccessToken).map(TokenClaims::userId).orElse(null);
+    }
+
+    // The verification path as it was before the parser was cached
+    private static boolean validate(String token) {
+        try {
+            Jwts.parser().verifyWith(Keys.hmacShaKeyFor(BenchmarkFixtures.SECRET.getBytes())).build().parseSignedClaims(token);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String tokenType(String token) {
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(BenchmarkFixtures.SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload().get("type", String.class);
+    }
+
+    private static UUID userId(String token) {
+        return UUID.fromString(Jwts.parser().verifyWith(Keys.hmacShaKeyFor(BenchmarkFixtures.SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload().getSubject());
+    }
+}
@@ -0,0 +1,37 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+    // 10 is the BCryptPasswordEncoder default used by SecurityConfig
+    @Param({"10"})
+    public int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        encodedPassword = passwordEncoder.encode("Correct-Horse-42");
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("Correct-Horse-42");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("Correct-Horse-42", encodedPassword);
+    }
+}
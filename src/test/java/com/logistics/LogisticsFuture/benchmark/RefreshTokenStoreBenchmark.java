@@ -0,0 +1,78 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.logistics.LogisticsFuture.dto.AuthResponse;
+import com.logistics.LogisticsFuture.dto.RefreshTokenRequest;
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import com.logistics.LogisticsFuture.service.AuthServiceImplementation;
+import com.logistics.LogisticsFuture.service.RefreshTokenStore;
+import com.logistics.LogisticsFuture.utility.JwtTokenProvider;
+import com.logistics.LogisticsFuture.utility.TokenDigests;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent {@code /refresh} load through {@link AuthServiceImplementation#refresh} with each
+ * {@link RefreshTokenStore} implementation, against an embedded PostgreSQL server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class RefreshTokenStoreBenchmark {
+    @Param({"jpa", "memory"})
+    public String storeType;
+
+    ConfigurableApplicationContext context;
+    AuthServiceImplementation authService;
+    RefreshTokenStore refreshTokenStore;
+    JwtTokenProvider jwtTokenProvider;
+    User user;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("--auth.refresh-store.type=" + storeType);
+        authService = context.getBean(AuthServiceImplementation.class);
+        refreshTokenStore = context.getBean(RefreshTokenStore.class);
+        jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+        user = context.getBean(UserRepository.class).save(User.builder()
+                .firstName("Bench")
+                .lastName("Mark")
+                .email("refresh-benchmark@example.com")
+                .password("{noop}secret")
+                .termsAgreed(true)
+                .enabled(true)
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        String refreshToken;
+
+        @Setup
+        public void signIn(RefreshTokenStoreBenchmark benchmark) {
+            refreshToken = benchmark.jwtTokenProvider.generateRefreshToken(benchmark.user.getUserId());
+            benchmark.refreshTokenStore.create(benchmark.user.getUserId(), benchmark.user.getEmail(),
+                    TokenDigests.sha256(refreshToken), Instant.now().plusSeconds(3600));
+        }
+    }
+
+    @Benchmark
+    public AuthResponse refresh(Session session) {
+        AuthResponse response = authService.refresh(new RefreshTokenRequest(session.refreshToken));
+        session.refreshToken = response.getRefreshToken();
+        return response;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.LogisticsFuture.dto.RegisterRequest;
+import com.logistics.LogisticsFuture.dto.UserImportResponse;
+import com.logistics.LogisticsFuture.service.AuthServiceImplementation;
+import com.logistics.LogisticsFuture.service.UserImportService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Users created per second by the bulk import versus one {@code register} call per user, against an
+ * embedded PostgreSQL server. At the production BCrypt strength hashing dominates both paths on small
+ * machines; strength 4 shows the database side of the difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserImportBenchmark {
+    private static final int USERS = 200;
+
+    @Param({"10", "4"})
+    public int bcryptStrength;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    ConfigurableApplicationContext context;
+    AuthServiceImplementation authService;
+    UserImportService userImportService;
+    ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("--security.password.bcrypt-strength=" + bcryptStrength);
+        authService = context.getBean(AuthServiceImplementation.class);
+        userImportService = context.getBean(UserImportService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private RegisterRequest nextUser() {
+        long n = sequence.incrementAndGet();
+        return RegisterRequest.builder()
+                .firstName("Driver")
+                .lastName("No" + n)
+                .email("driver" + n + "@fleet.example.com")
+                .password("Correct-Horse-42")
+                .confirmPassword("Correct-Horse-42")
+                .termsAgreed(true)
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public void registerLoop(Blackhole blackhole) {
+        for (int i = 0; i < USERS; i++) {
+            blackhole.consume(authService.register(nextUser()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public UserImportResponse bulkImport() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < USERS; i++) {
+            body.append(objectMapper.writeValueAsString(nextUser())).append('\n');
+        }
+        return userImportService.importUsers(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.logistics.LogisticsFuture.benchmark;
+
+import com.logistics.LogisticsFuture.repository.EmbeddedPostgresConfiguration;
+import com.logistics.LogisticsFuture.utility.UuidV7;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput into a UUID-keyed table on the embedded PostgreSQL server with random (version 4) and
+ * time-ordered (version 7) ids. The table is pre-filled so the primary-key index no longer fits in a handful
+ * of pages; the index size and leaf density are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UuidPrimaryKeyBenchmark {
+    private static final int BATCH = 1_000;
+    private static final int PREFILL = 200_000;
+
+    @Param({"v4", "v7"})
+    public String generator;
+
+    Connection connection;
+    PreparedStatement insert;
+    int rows;
+
+    @Setup
+    public void setUp() throws SQLException {
+        DataSource dataSource = EmbeddedPostgresConfiguration.postgres().getPostgresDatabase();
+        connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            statement.execute("DROP TABLE IF EXISTS uuid_benchmark");
+            statement.execute("CREATE TABLE uuid_benchmark (id uuid PRIMARY KEY, user_id uuid NOT NULL, expires_at timestamptz NOT NULL)");
+        }
+        connection.commit();
+        insert = connection.prepareStatement("INSERT INTO uuid_benchmark (id, user_id, expires_at) VALUES (?, ?, now())");
+        for (int i = 0; i < PREFILL / BATCH; i++) {
+            insertBatch();
+        }
+        rows = 0;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_relation_size('uuid_benchmark_pkey'), avg_leaf_density, "
+                     + "(SELECT count(*) FROM uuid_benchmark) FROM pgstatindex('uuid_benchmark_pkey')")) {
+            resultSet.next();
+            System.out.printf("%n%s: %d rows, primary key index %d kB (%.1f bytes/row), leaf density %.1f%%%n", generator,
+                    resultSet.getLong(3), resultSet.getLong(1) / 1024, (double) resultSet.getLong(1) / resultSet.getLong(3),
+                    resultSet.getDouble(2));
+        }
+        insert.close();
+        connection.close();
+    }
+
+    private UUID nextId() {
+        return "v7".equals(generator) ? UuidV7.generate() : UUID.randomUUID();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int insertBatch() throws SQLException {
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < BATCH; i++) {
+            insert.setObject(1, nextId());
+            insert.setObject(2, userId);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+        return rows += BATCH;
+    }
+}
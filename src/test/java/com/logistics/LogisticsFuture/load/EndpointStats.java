@@ -0,0 +1,88 @@
+package com.logistics.LogisticsFuture.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution and response status counts of one endpoint during a load run.
+ * Latencies are recorded in microseconds, from the time a request was scheduled to start.
+ */
+class EndpointStats {
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private final String name;
+	private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+	private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+	EndpointStats(String name) {
+		this.name = name;
+	}
+
+	void record(int status, long latencyNanos) {
+		latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+		statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+	}
+
+	String name() {
+		return name;
+	}
+
+	long count() {
+		return latency.getTotalCount();
+	}
+
+	long successes() {
+		return statuses.entrySet().stream()
+				.filter(entry -> entry.getKey() >= 200 && entry.getKey() < 300)
+				.mapToLong(entry -> entry.getValue().sum())
+				.sum();
+	}
+
+	// 503 is the service shedding load on purpose; anything else in the 5xx range is a failure
+	long serverErrors() {
+		return statuses.entrySet().stream()
+				.filter(entry -> entry.getKey() >= 500 && entry.getKey() != 503)
+				.mapToLong(entry -> entry.getValue().sum())
+				.sum();
+	}
+
+	void printSummary(PrintStream out, Duration measured) {
+		Map<Integer, Long> counts = new TreeMap<>();
+		statuses.forEach((status, count) -> counts.put(status, count.sum()));
+		out.printf("%-8s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+				name, count(), successes() / (measured.toMillis() / 1000.0),
+				millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+				millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+				millis(latency.getMaxValue()), counts);
+	}
+
+	/**
+	 * Writes the full percentile distribution in HdrHistogram's .hgrm format, which the
+	 * HdrHistogram plotter reads directly.
+	 */
+	void writeDistribution(Path directory) throws IOException {
+		try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")))) {
+			latency.outputPercentileDistribution(out, 1000.0);
+		}
+	}
+
+	static void printHeader(PrintStream out) {
+		out.printf("%-8s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+				"endpoint", "requests", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
@@ -0,0 +1,34 @@
+package com.logistics.LogisticsFuture.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Backs repository tests with a real PostgreSQL server, started once per test JVM, so that
+ * native queries run against the same dialect as production.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class EmbeddedPostgresConfiguration {
+	private static EmbeddedPostgres postgres;
+
+	public static synchronized EmbeddedPostgres postgres() {
+		if (postgres == null) {
+			try {
+				postgres = EmbeddedPostgres.start();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+			}
+		}
+		return postgres;
+	}
+
+	@Bean
+	public DataSource dataSource() {
+		return postgres().getPostgresDatabase();
+	}
+}
@@ -0,0 +1,155 @@
+package com.logistics.LogisticsFuture.repository;
+
+import com.logistics.LogisticsFuture.model.MailOutboxMessage;
+import com.logistics.LogisticsFuture.model.MailOutboxStatus;
+import com.logistics.LogisticsFuture.model.RefreshToken;
+import com.logistics.LogisticsFuture.utility.TokenDigests;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts from a database as the former ddl-auto: update left it, with a session and a reset token in it,
+ * and lets Flyway adopt it at V1 and migrate it. Hibernate then validates the entities against the result.
+ */
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LegacySchemaMigrationTests.LegacyDatabaseConfiguration.class)
+class LegacySchemaMigrationTests {
+	private static final String USER_ID = "0190d3c4-0000-7000-8000-000000000001";
+
+	// What Hibernate generated for the entities before Flyway, including its constraint names
+	private static final String LEGACY_SCHEMA = """
+			create table users (marketing_agreed boolean not null, terms_agreed boolean not null, enabled boolean not null,
+			    user_id uuid not null, email varchar(255) not null, first_name varchar(255) not null,
+			    last_name varchar(255) not null, password varchar(255) not null, phone_number varchar(255), primary key (user_id));
+			create table refresh_tokens (expires_at timestamp(6) with time zone not null, id uuid not null,
+			    user_id uuid not null, token varchar(255) not null, primary key (id));
+			create table password_reset_tokens (used boolean not null, expires_at timestamp(6) with time zone not null,
+			    id uuid not null, user_id uuid not null, token varchar(255) not null, primary key (id));
+			alter table if exists users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+			alter table if exists users add constraint UK9q63snka3mdh91as4io72espi unique (phone_number);
+			""";
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class LegacyDatabaseConfiguration {
+		@Bean
+		DataSource dataSource() {
+			return legacyDatabase();
+		}
+	}
+
+	private static DataSource legacyDatabase() {
+		String name = "legacy_" + System.nanoTime();
+		new JdbcTemplate(EmbeddedPostgresConfiguration.postgres().getPostgresDatabase()).execute("CREATE DATABASE " + name);
+		DataSource dataSource = EmbeddedPostgresConfiguration.postgres().getDatabase("postgres", name);
+
+		JdbcTemplate legacy = new JdbcTemplate(dataSource);
+		legacy.execute(LEGACY_SCHEMA);
+		legacy.update("INSERT INTO users VALUES (false, true, true, '" + USER_ID + "', 'kofi@example.com', 'Kofi', " +
+				"'Mensah', '{noop}secret', NULL)");
+		// The same token twice, as two logins within one second could store it before refresh tokens had a jti
+		for (int i = 0; i < 2; i++) {
+			legacy.update("INSERT INTO refresh_tokens VALUES (now() + interval '1 day', gen_random_uuid(), '" + USER_ID +
+					"', 'legacy-refresh-token')");
+		}
+		legacy.update("INSERT INTO password_reset_tokens VALUES (false, now() + interval '1 hour', gen_random_uuid(), '" +
+				USER_ID + "', 'legacy-reset-token')");
+		return dataSource;
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private PasswordResetTokenRepository passwordResetTokenRepository;
+
+	@Autowired
+	private MailOutboxRepository mailOutboxRepository;
+
+	@Test
+	void adoptsTheLegacySchemaAtTheBaselineAndMigratesFromThere() {
+		List<String> applied = jdbcTemplate.queryForList(
+				"SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+		assertEquals("1", applied.get(0));
+		assertEquals("BASELINE", jdbcTemplate.queryForObject(
+				"SELECT type FROM flyway_schema_history WHERE version = '1'", String.class));
+		assertTrue(applied.size() > 1);
+	}
+
+	@Test
+	void keepsExistingSessionsAndResetTokens() {
+		Instant now = Instant.now();
+		RefreshToken session = refreshTokenRepository.findByTokenHashAndExpiresAtAfter(
+				TokenDigests.sha256("legacy-refresh-token"), now).orElseThrow();
+
+		assertEquals(USER_ID, session.getUserId().toString());
+		assertEquals(1, refreshTokenRepository.count());
+		assertTrue(passwordResetTokenRepository.findByTokenAndExpiresAtAfterAndUsedFalse("legacy-reset-token", now).isPresent());
+	}
+
+	@Test
+	void fillsTheDigestForSessionsThePreviousReleaseStillWrites() {
+		jdbcTemplate.update("INSERT INTO refresh_tokens (id, user_id, token, expires_at) " +
+				"VALUES (gen_random_uuid(), '" + USER_ID + "', 'written-by-the-previous-release', now() + interval '1 day')");
+
+		assertTrue(refreshTokenRepository.findByTokenHashAndExpiresAtAfter(
+				TokenDigests.sha256("written-by-the-previous-release"), Instant.now()).isPresent());
+	}
+
+	@Test
+	void contractStepDropsThePlaintextTokenOnceEnabled() {
+		DataSource dataSource = legacyDatabase();
+		Flyway.configure()
+				.dataSource(dataSource)
+				.baselineOnMigrate(true)
+				.baselineVersion("1")
+				.locations("classpath:db/migration", "classpath:db/contract")
+				.load()
+				.migrate();
+
+		JdbcTemplate migrated = new JdbcTemplate(dataSource);
+		List<String> columns = migrated.queryForList("SELECT column_name FROM information_schema.columns " +
+				"WHERE table_name = 'refresh_tokens' AND is_nullable = 'NO'", String.class);
+		assertTrue(columns.contains("token_hash"));
+		assertEquals(0, migrated.queryForObject("SELECT count(*) FROM information_schema.columns " +
+				"WHERE table_name = 'refresh_tokens' AND column_name = 'token'", Integer.class));
+		assertEquals(1, migrated.queryForObject("SELECT count(*) FROM refresh_tokens " +
+				"WHERE token_hash = sha256(convert_to('legacy-refresh-token', 'UTF8'))", Integer.class));
+	}
+
+	@Test
+	void createsTheMailOutbox() {
+		Instant now = Instant.now();
+		mailOutboxRepository.saveAndFlush(MailOutboxMessage.builder()
+				.recipient("kofi@example.com")
+				.subject("Password Reset Request")
+				.body("reset link")
+				.status(MailOutboxStatus.PENDING)
+				.attempts(0)
+				.createdAt(now)
+				.nextAttemptAt(now)
+				.build());
+
+		assertEquals(1, mailOutboxRepository.lockDueBatch(now, 10).size());
+	}
+}
@@ -0,0 +1,56 @@
+package com.logistics.LogisticsFuture.repository;
+
+import com.logistics.LogisticsFuture.model.MailOutboxMessage;
+import com.logistics.LogisticsFuture.model.MailOutboxStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class MailOutboxRepositoryTests {
+	@Autowired
+	private MailOutboxRepository mailOutboxRepository;
+
+	private MailOutboxMessage store(MailOutboxStatus status, Instant createdAt) {
+		return mailOutboxRepository.saveAndFlush(MailOutboxMessage.builder()
+				.recipient("driver@example.com")
+				.subject("Password Reset Request")
+				.body("reset link")
+				.status(status)
+				.attempts(0)
+				.createdAt(createdAt)
+				.nextAttemptAt(createdAt)
+				.build());
+	}
+
+	@Test
+	void purgesFinishedMessagesPastTheRetentionInBoundedBatches() {
+		Instant now = Instant.now();
+		Instant old = now.minus(Duration.ofDays(8));
+		Instant cutoff = now.minus(Duration.ofDays(7));
+		store(MailOutboxStatus.SENT, old);
+		store(MailOutboxStatus.SENT, old);
+		store(MailOutboxStatus.DEAD, old);
+		MailOutboxMessage pending = store(MailOutboxStatus.PENDING, old);
+		MailOutboxMessage recent = store(MailOutboxStatus.SENT, now);
+
+		assertEquals(2, mailOutboxRepository.deleteFinishedBatch(cutoff, 2));
+		assertEquals(1, mailOutboxRepository.deleteFinishedBatch(cutoff, 2));
+		assertEquals(0, mailOutboxRepository.deleteFinishedBatch(cutoff, 2));
+		assertTrue(mailOutboxRepository.existsById(pending.getId()));
+		assertTrue(mailOutboxRepository.existsById(recent.getId()));
+	}
+}
@@ -0,0 +1,94 @@
+package com.logistics.LogisticsFuture.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans the hot repository queries against the migrated schema and fails when one of them needs a
+ * sequential scan. Sequential scans are switched off for the planner, so it only picks one when no
+ * index can answer the query; on tables this small it would otherwise prefer one regardless.
+ */
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class QueryPlanTests {
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String plan(String sql) {
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+		List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+		return String.join("\n", lines);
+	}
+
+	private void assertIndexed(String sql, String index) {
+		String plan = plan(sql);
+		assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan for " + sql + "\n" + plan);
+		assertTrue(plan.contains(index), () -> "Expected " + index + " for " + sql + "\n" + plan);
+	}
+
+	@Test
+	void userLookups() {
+		assertIndexed("SELECT * FROM users WHERE email = 'ama@example.com'", "uk_users_email");
+		assertIndexed("SELECT email FROM users WHERE email IN ('a@example.com', 'b@example.com')", "uk_users_email");
+		assertIndexed("SELECT phone_number FROM users WHERE phone_number IN ('+233200000000', '+233200000001')",
+				"uk_users_phone_number");
+	}
+
+	@Test
+	void refreshTokenLookupAndRotation() {
+		assertIndexed("SELECT * FROM refresh_tokens WHERE token_hash = '\\x01'::bytea AND expires_at > now()",
+				"uk_refresh_tokens_token_hash");
+		assertIndexed("UPDATE refresh_tokens rt SET token_hash = '\\x02'::bytea, previous_token_hash = rt.token_hash, " +
+				"expires_at = now() FROM users u WHERE rt.token_hash = '\\x01'::bytea AND rt.expires_at > now() " +
+				"AND u.user_id = rt.user_id RETURNING rt.user_id, u.email", "uk_refresh_tokens_token_hash");
+		assertIndexed("DELETE FROM refresh_tokens WHERE previous_token_hash = '\\x01'::bytea",
+				"idx_refresh_tokens_previous_token_hash");
+		assertIndexed("SELECT * FROM refresh_tokens WHERE user_id = '0190d3c4-0000-7000-8000-000000000000'",
+				"idx_refresh_tokens_user_id");
+	}
+
+	@Test
+	void sessionManagement() {
+		String user = "'0190d3c4-0000-7000-8000-000000000000'";
+		assertIndexed("SELECT id, expires_at FROM refresh_tokens WHERE user_id = " + user + " AND expires_at > now() ORDER BY id",
+				"idx_refresh_tokens_user_id");
+		assertIndexed("DELETE FROM refresh_tokens WHERE user_id = " + user, "idx_refresh_tokens_user_id");
+		assertIndexed("DELETE FROM refresh_tokens WHERE user_id = " + user + " AND id NOT IN (SELECT id FROM refresh_tokens " +
+				"WHERE user_id = " + user + " AND expires_at > now() ORDER BY id DESC LIMIT 5)", "idx_refresh_tokens_user_id");
+	}
+
+	@Test
+	void passwordResetTokenLookup() {
+		assertIndexed("SELECT * FROM password_reset_tokens WHERE token = 'abc' AND expires_at > now() AND NOT used",
+				"idx_password_reset_tokens_token");
+		assertIndexed("SELECT u.* FROM users u JOIN password_reset_tokens prt ON u.user_id = prt.user_id " +
+				"WHERE prt.token = 'abc' AND prt.expires_at > now() AND prt.used = false", "idx_password_reset_tokens_token");
+	}
+
+	@Test
+	void reapersAndOutboxPolling() {
+		assertIndexed("SELECT id FROM refresh_tokens WHERE expires_at < now() LIMIT 1000 FOR UPDATE SKIP LOCKED",
+				"idx_refresh_tokens_expires_at");
+		String resetReaper = "SELECT id FROM password_reset_tokens WHERE used OR expires_at < now() LIMIT 1000 FOR UPDATE SKIP LOCKED";
+		assertIndexed(resetReaper, "idx_password_reset_tokens_used");
+		assertIndexed(resetReaper, "idx_password_reset_tokens_expires_at");
+		assertIndexed("SELECT * FROM mail_outbox WHERE status = 'PENDING' AND next_attempt_at <= now() " +
+				"ORDER BY next_attempt_at LIMIT 50 FOR UPDATE SKIP LOCKED", "idx_mail_outbox_pending_next_attempt");
+		assertIndexed("SELECT count(*) FROM mail_outbox WHERE status = 'PENDING'", "idx_mail_outbox_pending_next_attempt");
+		assertIndexed("SELECT id FROM mail_outbox WHERE status IN ('SENT', 'DEAD') AND created_at < now() " +
+				"LIMIT 1000 FOR UPDATE SKIP LOCKED", "idx_mail_outbox_finished_created_at");
+	}
+}
@@ -0,0 +1,140 @@
+package com.logistics.LogisticsFuture.repository;
+
+import com.logistics.LogisticsFuture.model.RefreshToken;
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.projection.RefreshSessionProjection;
+import com.logistics.LogisticsFuture.projection.UserRefreshProjection;
+import com.logistics.LogisticsFuture.utility.TokenDigests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class RefreshTokenRepositoryTests {
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = userRepository.save(User.builder()
+				.firstName("Ama")
+				.lastName("Mensah")
+				.email("ama.mensah+" + System.nanoTime() + "@example.com")
+				.password("{noop}secret")
+				.termsAgreed(true)
+				.enabled(true)
+				.build());
+	}
+
+	private byte[] storeToken(String token, Instant expiresAt) {
+		byte[] hash = TokenDigests.sha256(token);
+		refreshTokenRepository.saveAndFlush(RefreshToken.builder()
+				.userId(user.getUserId())
+				.tokenHash(hash)
+				.expiresAt(expiresAt)
+				.build());
+		return hash;
+	}
+
+	@Test
+	void rotatesInOneStatementAndReturnsTheOwner() {
+		Instant now = Instant.now();
+		byte[] oldHash = storeToken("old-refresh-token", now.plusSeconds(600));
+		byte[] newHash = TokenDigests.sha256("new-refresh-token");
+
+		UserRefreshProjection owner = refreshTokenRepository.rotate(oldHash, newHash, now.plusSeconds(1200), now).orElseThrow();
+
+		assertEquals(user.getUserId(), owner.getUserId());
+		assertEquals(user.getEmail(), owner.getEmail());
+		assertTrue(refreshTokenRepository.findByTokenHashAndExpiresAtAfter(newHash, now).isPresent());
+		assertTrue(refreshTokenRepository.findByTokenHashAndExpiresAtAfter(oldHash, now).isEmpty());
+	}
+
+	@Test
+	void doesNotRotateExpiredTokens() {
+		Instant now = Instant.now();
+		byte[] expiredHash = storeToken("expired-refresh-token", now.minusSeconds(1));
+
+		Optional<UserRefreshProjection> owner = refreshTokenRepository.rotate(
+				expiredHash, TokenDigests.sha256("replacement"), now.plusSeconds(600), now);
+
+		assertTrue(owner.isEmpty());
+	}
+
+	@Test
+	void recognisesAReplayedRotatedToken() {
+		Instant now = Instant.now();
+		byte[] oldHash = storeToken("rotated-refresh-token", now.plusSeconds(600));
+		refreshTokenRepository.rotate(oldHash, TokenDigests.sha256("successor"), now.plusSeconds(1200), now);
+
+		assertTrue(refreshTokenRepository.rotate(oldHash, TokenDigests.sha256("second-successor"), now.plusSeconds(1200), now).isEmpty());
+		assertEquals(1, refreshTokenRepository.deleteByPreviousTokenHash(oldHash));
+		assertEquals(0, refreshTokenRepository.count());
+	}
+
+	@Test
+	void purgesExpiredTokensInBoundedBatches() {
+		Instant now = Instant.now();
+		for (int i = 0; i < 5; i++) {
+			storeToken("expired-" + i, now.minusSeconds(60));
+		}
+		byte[] liveHash = storeToken("live", now.plusSeconds(600));
+
+		assertEquals(2, refreshTokenRepository.deleteExpiredBatch(now, 2));
+		assertEquals(2, refreshTokenRepository.deleteExpiredBatch(now, 2));
+		assertEquals(1, refreshTokenRepository.deleteExpiredBatch(now, 2));
+		assertEquals(0, refreshTokenRepository.deleteExpiredBatch(now, 2));
+		assertTrue(refreshTokenRepository.findByTokenHashAndExpiresAtAfter(liveHash, now).isPresent());
+	}
+
+	@Test
+	void keepsOnlyTheNewestLiveSessions() {
+		Instant now = Instant.now();
+		storeToken("expired", now.minusSeconds(60));
+		storeToken("oldest", now.plusSeconds(600));
+		byte[] middle = storeToken("middle", now.plusSeconds(600));
+		byte[] newest = storeToken("newest", now.plusSeconds(600));
+
+		assertEquals(2, refreshTokenRepository.deleteAllButNewest(user.getUserId(), 2, now));
+
+		List<RefreshSessionProjection> remaining = refreshTokenRepository.findByUserIdAndExpiresAtAfterOrderByIdAsc(user.getUserId(), now);
+		assertEquals(2, remaining.size());
+		assertArrayEquals(middle, refreshTokenRepository.findById(remaining.get(0).getId()).orElseThrow().getTokenHash());
+		assertArrayEquals(newest, refreshTokenRepository.findById(remaining.get(1).getId()).orElseThrow().getTokenHash());
+	}
+
+	@Test
+	void revokesOneOrAllSessionsOfAUser() {
+		Instant now = Instant.now();
+		storeToken("phone", now.plusSeconds(600));
+		storeToken("tablet", now.plusSeconds(600));
+		storeToken("handheld", now.plusSeconds(600));
+		UUID tablet = refreshTokenRepository.findByUserIdAndExpiresAtAfterOrderByIdAsc(user.getUserId(), now).get(1).getId();
+
+		assertEquals(0, refreshTokenRepository.deleteByIdAndUserId(tablet, UUID.randomUUID()));
+		assertEquals(1, refreshTokenRepository.deleteByIdAndUserId(tablet, user.getUserId()));
+		assertEquals(2, refreshTokenRepository.deleteByUserId(user.getUserId()));
+		assertTrue(refreshTokenRepository.findByUserIdAndExpiresAtAfterOrderByIdAsc(user.getUserId(), now).isEmpty());
+	}
+}
@@ -0,0 +1,85 @@
+package com.logistics.LogisticsFuture.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTests {
+	@TempDir
+	Path directory;
+
+	private AuditLog auditLog(int bufferSize, String policy, DataSize maxFileSize) {
+		return new AuditLog(new SimpleMeterRegistry(), true, directory.toString(), bufferSize, policy, maxFileSize, 2);
+	}
+
+	@Test
+	void writesEventsAsJsonLines() throws Exception {
+		AuditLog auditLog = auditLog(16, "block", DataSize.ofMegabytes(1));
+		auditLog.start();
+		UUID userId = UUID.randomUUID();
+
+		auditLog.record(AuditEventType.LOGIN_SUCCEEDED, userId, "kofi@example.com");
+		auditLog.record(AuditEventType.LOGIN_FAILED, null, "a\"b@example.com", "Invalid credentials");
+		auditLog.close();
+
+		List<String> lines = Files.readAllLines(directory.resolve("audit.log"));
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).contains("\"event\":\"LOGIN_SUCCEEDED\",\"userId\":\"" + userId + "\",\"email\":\"kofi@example.com\""));
+		assertTrue(lines.get(1).endsWith("\"event\":\"LOGIN_FAILED\",\"email\":\"a\\\"b@example.com\",\"detail\":\"Invalid credentials\"}"));
+		assertEquals(2, auditLog.writtenCount());
+	}
+
+	@Test
+	void dropsAndCountsEventsWhenTheBufferIsFull() throws Exception {
+		AuditLog auditLog = auditLog(8, "drop", DataSize.ofMegabytes(1));
+
+		for (int i = 0; i < 20; i++) {
+			auditLog.record(AuditEventType.TOKEN_REFRESHED, null, "driver" + i + "@example.com");
+		}
+		assertEquals(12, auditLog.droppedCount());
+
+		auditLog.start();
+		auditLog.close();
+		assertEquals(8, Files.readAllLines(directory.resolve("audit.log")).size());
+	}
+
+	@Test
+	void blockingProducersWaitForTheWriterInsteadOfDropping() throws Exception {
+		AuditLog auditLog = auditLog(8, "block", DataSize.ofMegabytes(1));
+		auditLog.start();
+
+		for (int i = 0; i < 5_000; i++) {
+			auditLog.record(AuditEventType.TOKEN_REFRESHED, null, "driver" + i + "@example.com");
+		}
+		auditLog.close();
+
+		assertEquals(0, auditLog.droppedCount());
+		assertEquals(5_000, Files.readAllLines(directory.resolve("audit.log")).size());
+	}
+
+	@Test
+	void rollsTheFileAndKeepsALimitedHistory() throws Exception {
+		AuditLog auditLog = auditLog(64, "block", DataSize.ofBytes(1_000));
+		auditLog.start();
+
+		for (int i = 0; i < 200; i++) {
+			auditLog.record(AuditEventType.LOGGED_OUT, UUID.randomUUID(), null);
+		}
+		auditLog.close();
+
+		try (Stream<Path> files = Files.list(directory)) {
+			List<String> names = files.map(path -> path.getFileName().toString()).sorted().toList();
+			assertTrue(names.contains("audit.log"));
+			assertEquals(2, names.stream().filter(name -> name.startsWith("audit-")).count());
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.exceptions.RefreshTokenReuseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthMetricsTests {
+
+	private static long count(SimpleMeterRegistry registry, String operation, String outcome) {
+		return registry.get("auth.operation").tag("operation", operation).tag("outcome", outcome).timer().count();
+	}
+
+	@Test
+	void tagsEachCallWithItsOutcome() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AuthMetrics metrics = new AuthMetrics(registry);
+
+		assertEquals("ok", metrics.record("login", () -> "ok"));
+		assertThrows(RuntimeException.class, () -> metrics.record("login", () -> {
+			throw new RuntimeException("Login failed", new IllegalArgumentException("Invalid credentials"));
+		}));
+		assertThrows(RefreshTokenReuseException.class, () -> metrics.record("refresh", () -> {
+			throw new RefreshTokenReuseException("reused");
+		}));
+		assertThrows(IllegalStateException.class, () -> metrics.record("logout", () -> {
+			throw new IllegalStateException("database down");
+		}));
+
+		assertEquals(1, count(registry, "login", "success"));
+		assertEquals(1, count(registry, "login", "invalid"));
+		assertEquals(1, count(registry, "refresh", "reuse"));
+		assertEquals(1, count(registry, "logout", "error"));
+	}
+}
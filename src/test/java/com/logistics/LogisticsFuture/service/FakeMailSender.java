@@ -0,0 +1,33 @@
+package com.logistics.LogisticsFuture.service;
+
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory {@link org.springframework.mail.javamail.JavaMailSender} that records every message
+ * instead of talking to an SMTP server, and can be told to fail.
+ */
+public class FakeMailSender extends JavaMailSenderImpl {
+	private final List<SimpleMailMessage> sent = new CopyOnWriteArrayList<>();
+	private volatile boolean failing;
+
+	@Override
+	public void send(SimpleMailMessage... simpleMessages) {
+		if (failing) {
+			throw new MailSendException("SMTP server unavailable");
+		}
+		sent.addAll(List.of(simpleMessages));
+	}
+
+	public List<SimpleMailMessage> sent() {
+		return sent;
+	}
+
+	public void setFailing(boolean failing) {
+		this.failing = failing;
+	}
+}
@@ -0,0 +1,181 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.repository.EmbeddedPostgresConfiguration;
+import com.logistics.LogisticsFuture.repository.RefreshTokenRepository;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import com.logistics.LogisticsFuture.utility.TokenDigests;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class InMemoryRefreshTokenStoreTests {
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	private User user;
+
+	private final List<InMemoryRefreshTokenStore> stores = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		user = userRepository.saveAndFlush(User.builder()
+				.firstName("Kofi")
+				.lastName("Boateng")
+				.email("kofi.boateng+" + System.nanoTime() + "@example.com")
+				.password("{noop}secret")
+				.termsAgreed(true)
+				.enabled(true)
+				.build());
+	}
+
+	// Flushed by hand: a background flush would commit rows for a user that only exists in the test transaction
+	private InMemoryRefreshTokenStore newStore() {
+		return newStore(Duration.ofHours(1));
+	}
+
+	private InMemoryRefreshTokenStore newStore(Duration durabilityWindow) {
+		InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(new JdbcTemplate(dataSource), transactionManager,
+				new SimpleMeterRegistry(), 5000, durabilityWindow);
+		store.recover();
+		stores.add(store);
+		return store;
+	}
+
+	@AfterEach
+	void tearDown() {
+		stores.forEach(InMemoryRefreshTokenStore::shutdown);
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void flushesOnItsOwnThreadWithinTheDurabilityWindow() throws Exception {
+		InMemoryRefreshTokenStore store = newStore(Duration.ofMillis(50));
+		Instant now = Instant.now();
+		byte[] tokenHash = TokenDigests.sha256("background-flush");
+		store.create(user.getUserId(), user.getEmail(), tokenHash, now.plusSeconds(600));
+
+		try {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (refreshTokenRepository.findByTokenHashAndExpiresAtAfter(tokenHash, now).isEmpty()) {
+				assertTrue(System.nanoTime() < deadline, "session was not flushed");
+				Thread.sleep(10);
+			}
+		} finally {
+			store.shutdown();
+			new JdbcTemplate(dataSource).update("DELETE FROM refresh_tokens WHERE user_id = ?", user.getUserId());
+			userRepository.delete(user);
+		}
+	}
+
+	@Test
+	void onlyOneConcurrentRotationWins() throws Exception {
+		InMemoryRefreshTokenStore store = newStore();
+		Instant now = Instant.now();
+		byte[] tokenHash = TokenDigests.sha256("contended-token");
+		store.create(user.getUserId(), user.getEmail(), tokenHash, now.plusSeconds(600));
+
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			CountDownLatch start = new CountDownLatch(1);
+			for (int i = 0; i < 8; i++) {
+				byte[] successor = TokenDigests.sha256("successor-" + i);
+				results.add(callers.submit(() -> {
+					start.await();
+					return store.rotate(tokenHash, successor, now.plusSeconds(1200), now).isPresent();
+				}));
+			}
+			start.countDown();
+			int winners = 0;
+			for (Future<Boolean> result : results) {
+				winners += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+			}
+			assertEquals(1, winners);
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	void flushesChangesInOrderAndRecoversThemOnRestart() {
+		InMemoryRefreshTokenStore store = newStore();
+		Instant now = Instant.now();
+		byte[] first = TokenDigests.sha256("first");
+		byte[] second = TokenDigests.sha256("second");
+		byte[] loggedOut = TokenDigests.sha256("logged-out");
+
+		store.create(user.getUserId(), user.getEmail(), first, now.plusSeconds(600));
+		store.rotate(first, second, now.plusSeconds(1200), now);
+		store.create(user.getUserId(), user.getEmail(), loggedOut, now.plusSeconds(600));
+		assertTrue(store.revoke(loggedOut, now));
+		store.flush();
+
+		assertEquals(1, refreshTokenRepository.count());
+		assertTrue(refreshTokenRepository.findByTokenHashAndExpiresAtAfter(second, now).isPresent());
+
+		InMemoryRefreshTokenStore restarted = newStore();
+		assertEquals(user.getEmail(), restarted.rotate(second, TokenDigests.sha256("third"), now.plusSeconds(1800), now)
+				.orElseThrow().getEmail());
+		assertTrue(restarted.rotate(first, TokenDigests.sha256("replay"), now.plusSeconds(1800), now).isEmpty());
+		assertTrue(restarted.revokeRotatedFrom(second));
+	}
+
+	@Test
+	void evictsTheOldestSessionsAndRevokesAllOfAUser() {
+		InMemoryRefreshTokenStore store = newStore();
+		Instant now = Instant.now();
+		for (String device : List.of("expired", "oldest", "middle", "newest")) {
+			store.create(user.getUserId(), user.getEmail(), TokenDigests.sha256(device),
+					device.equals("expired") ? now.minusSeconds(1) : now.plusSeconds(600));
+		}
+		byte[] other = TokenDigests.sha256("someone-else");
+		store.create(UUID.randomUUID(), "other@example.com", other, now.plusSeconds(600));
+
+		assertEquals(2, store.evictOldest(user.getUserId(), 2, now));
+		assertTrue(store.rotate(TokenDigests.sha256("oldest"), TokenDigests.sha256("x"), now.plusSeconds(600), now).isEmpty());
+		assertEquals(2, store.sessions(user.getUserId(), now).size());
+
+		UUID middle = store.sessions(user.getUserId(), now).getFirst().getId();
+		assertTrue(store.revokeSession(user.getUserId(), middle));
+		assertFalse(store.revokeSession(user.getUserId(), middle));
+		assertEquals(1, store.revokeAll(user.getUserId()));
+		assertTrue(store.sessions(user.getUserId(), now).isEmpty());
+		assertTrue(store.revoke(other, now));
+	}
+}
@@ -0,0 +1,163 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.MailOutboxMessage;
+import com.logistics.LogisticsFuture.model.MailOutboxStatus;
+import com.logistics.LogisticsFuture.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.InOrder;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailOutboxDispatcherTests {
+	private MailOutboxRepository repository;
+	private FakeMailSender mailSender;
+	private PlatformTransactionManager transactionManager;
+	private MailOutboxDispatcher dispatcher;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(MailOutboxRepository.class);
+		mailSender = new FakeMailSender();
+		transactionManager = mock(PlatformTransactionManager.class);
+		dispatcher = new MailOutboxDispatcher(repository, mailSender, transactionManager, new SimpleMeterRegistry(),
+				50, 3, Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofMinutes(10));
+	}
+
+	private static MailOutboxMessage pendingMessage(int attempts) {
+		return MailOutboxMessage.builder()
+				.id(UUID.randomUUID())
+				.recipient("driver@example.com")
+				.subject("Password Reset Request")
+				.body("reset link")
+				.status(MailOutboxStatus.PENDING)
+				.attempts(attempts)
+				.createdAt(Instant.now())
+				.nextAttemptAt(Instant.now())
+				.build();
+	}
+
+	@Test
+	void sendsDueMessagesAndMarksThemSent() {
+		MailOutboxMessage message = pendingMessage(0);
+		when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(message));
+
+		assertEquals(1, dispatcher.dispatch());
+
+		assertEquals(1, mailSender.sent().size());
+		assertEquals("driver@example.com", mailSender.sent().get(0).getTo()[0]);
+		assertEquals(MailOutboxStatus.SENT, message.getStatus());
+		assertNotNull(message.getSentAt());
+	}
+
+	@Test
+	void backsOffAfterAFailedSend() {
+		MailOutboxMessage message = pendingMessage(0);
+		when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(message));
+		mailSender.setFailing(true);
+
+		dispatcher.dispatch();
+
+		assertEquals(MailOutboxStatus.PENDING, message.getStatus());
+		assertEquals(1, message.getAttempts());
+		assertTrue(message.getNextAttemptAt().isAfter(Instant.now().plusSeconds(25)));
+		assertEquals("SMTP server unavailable", message.getLastError());
+	}
+
+	@Test
+	void deadLettersAfterTheLastAttempt() {
+		MailOutboxMessage message = pendingMessage(2);
+		when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(message));
+		mailSender.setFailing(true);
+
+		dispatcher.dispatch();
+
+		assertEquals(MailOutboxStatus.DEAD, message.getStatus());
+		assertEquals(3, message.getAttempts());
+	}
+
+	@Test
+	void leasesTheBatchAndSavesEachOutcomeInItsOwnTransaction() {
+		MailOutboxMessage first = pendingMessage(0);
+		MailOutboxMessage second = pendingMessage(0);
+		when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(first, second));
+		Instant before = Instant.now();
+
+		dispatcher.dispatch();
+
+		InOrder order = inOrder(transactionManager, repository);
+		order.verify(transactionManager).getTransaction(any());
+		order.verify(repository).lockDueBatch(any(), anyInt());
+		order.verify(repository).saveAll(List.of(first, second));
+		order.verify(transactionManager).commit(any());
+		order.verify(transactionManager).getTransaction(any());
+		order.verify(repository).save(first);
+		order.verify(transactionManager).commit(any());
+		order.verify(transactionManager).getTransaction(any());
+		order.verify(repository).save(second);
+		order.verify(transactionManager).commit(any());
+		assertEquals(2, mailSender.sent().size());
+		assertFalse(first.getSentAt().isBefore(before));
+	}
+
+	@Test
+	void pushesTheNextAttemptPastTheLeaseWhileClaimed() {
+		MailOutboxMessage message = pendingMessage(0);
+		when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(message));
+		when(repository.saveAll(any())).thenAnswer(invocation -> {
+			assertTrue(message.getNextAttemptAt().isAfter(Instant.now().plusSeconds(590)));
+			return List.of(message);
+		});
+
+		dispatcher.dispatch();
+
+		verify(repository).saveAll(List.of(message));
+	}
+
+	@Test
+	void keepsGoingWhenTheSenderThrowsSomethingOtherThanAMailException() {
+		MailOutboxMessage broken = pendingMessage(0);
+		MailOutboxMessage fine = pendingMessage(0);
+		JavaMailSender sender = mock(JavaMailSender.class);
+		doThrow(new IllegalStateException("no transport")).doNothing().when(sender).send(any(SimpleMailMessage.class));
+		dispatcher = new MailOutboxDispatcher(repository, sender, transactionManager, new SimpleMeterRegistry(),
+				50, 3, Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofMinutes(10));
+		when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of(broken, fine));
+
+		assertEquals(2, dispatcher.dispatch());
+
+		assertEquals(MailOutboxStatus.PENDING, broken.getStatus());
+		assertEquals(1, broken.getAttempts());
+		assertEquals("no transport", broken.getLastError());
+		assertEquals(MailOutboxStatus.SENT, fine.getStatus());
+		verify(repository).save(broken);
+		verify(repository).save(fine);
+	}
+
+	@Test
+	void reportsQueueDepth() {
+		when(repository.lockDueBatch(any(), anyInt())).thenReturn(List.of());
+		when(repository.countByStatus(MailOutboxStatus.PENDING)).thenReturn(7L);
+
+		dispatcher.dispatch();
+
+		assertEquals(7, dispatcher.pendingCount());
+	}
+}
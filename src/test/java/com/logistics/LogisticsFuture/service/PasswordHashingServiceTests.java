@@ -0,0 +1,81 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTests {
+
+	@Test
+	void encodesAndMatchesOnTheHashingPool() {
+		PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(4), new SimpleMeterRegistry(), 2, 8);
+
+		String encoded = service.encode("Correct-Horse-42");
+
+		assertTrue(service.matches("Correct-Horse-42", encoded));
+		assertFalse(service.matches("wrong-password", encoded));
+	}
+
+	@Test
+	void rejectsFastWhenTheQueueIsFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		BCryptPasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.encode(rawPassword);
+			}
+		};
+		PasswordHashingService service = new PasswordHashingService(blockingEncoder, new SimpleMeterRegistry(), 1, 1);
+
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"), callers);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"), callers);
+			Thread.sleep(100);
+
+			assertThrows(ServiceBusyException.class, () -> service.encode("third"));
+
+			release.countDown();
+			assertNotNull(running.get(5, TimeUnit.SECONDS));
+			assertNotNull(queued.get(5, TimeUnit.SECONDS));
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	void rehashesHashesBelowTheTargetCost() throws Exception {
+		String weakHash = new BCryptPasswordEncoder(4).encode("Correct-Horse-42");
+		PasswordHashingService service = new PasswordHashingService(new BCryptPasswordEncoder(5), new SimpleMeterRegistry(), 1, 8);
+		AtomicReference<String> rehashed = new AtomicReference<>();
+		CountDownLatch done = new CountDownLatch(1);
+
+		assertTrue(service.needsUpgrade(weakHash));
+		service.rehashInBackground("Correct-Horse-42", hash -> {
+			rehashed.set(hash);
+			done.countDown();
+		});
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertTrue(rehashed.get().startsWith("$2a$05$"));
+		assertFalse(service.needsUpgrade(rehashed.get()));
+	}
+}
@@ -0,0 +1,84 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.dto.AuthResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshCoalescerTests {
+
+	private static AuthResponse pair(int generation) {
+		AuthResponse response = new AuthResponse();
+		response.setToken("access-" + generation);
+		response.setRefreshToken("refresh-" + generation);
+		return response;
+	}
+
+	@Test
+	void concurrentCallersShareOneRotation() throws Exception {
+		RefreshCoalescer coalescer = new RefreshCoalescer(true, Duration.ofSeconds(2), new SimpleMeterRegistry());
+		AtomicInteger rotations = new AtomicInteger();
+		CountDownLatch rotating = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<AuthResponse>> results = new ArrayList<>();
+			results.add(callers.submit(() -> coalescer.refresh("token", () -> {
+				rotating.countDown();
+				await(release);
+				return pair(rotations.incrementAndGet());
+			})));
+			rotating.await();
+			for (int i = 0; i < 3; i++) {
+				results.add(callers.submit(() -> coalescer.refresh("token", () -> pair(rotations.incrementAndGet()))));
+			}
+			while (coalescer.coalescedCount() < 3) {
+				Thread.sleep(1);
+			}
+			release.countDown();
+
+			for (Future<AuthResponse> result : results) {
+				assertEquals("refresh-1", result.get(5, TimeUnit.SECONDS).getRefreshToken());
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+
+		// Within the grace window a late duplicate still gets the same pair
+		assertEquals("refresh-1", coalescer.refresh("token", () -> pair(rotations.incrementAndGet())).getRefreshToken());
+		assertEquals(1, rotations.get());
+		assertEquals("refresh-2", coalescer.refresh("other-token", () -> pair(rotations.incrementAndGet())).getRefreshToken());
+	}
+
+	@Test
+	void failuresAreNotKeptAndDisabledCoalescingAlwaysRotates() {
+		RefreshCoalescer coalescer = new RefreshCoalescer(true, Duration.ofSeconds(2), new SimpleMeterRegistry());
+		assertThrows(IllegalStateException.class, () -> coalescer.refresh("token", () -> {
+			throw new IllegalStateException("database down");
+		}));
+		assertEquals("refresh-1", coalescer.refresh("token", () -> pair(1)).getRefreshToken());
+
+		RefreshCoalescer disabled = new RefreshCoalescer(false, Duration.ofSeconds(2), new SimpleMeterRegistry());
+		AtomicInteger rotations = new AtomicInteger();
+		disabled.refresh("token", () -> pair(rotations.incrementAndGet()));
+		assertEquals("refresh-2", disabled.refresh("token", () -> pair(rotations.incrementAndGet())).getRefreshToken());
+		assertEquals(0, disabled.size());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.projection.UserAuthProjection;
+import com.logistics.LogisticsFuture.repository.EmbeddedPostgresConfiguration;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class SignedPasswordResetTokensTests {
+	private static final String SECRET = "reset-secret-reset-secret-reset-secret-0123";
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private SignedPasswordResetTokens tokens;
+	private UserAuthProjection user;
+
+	@BeforeEach
+	void setUp() {
+		User saved = userRepository.saveAndFlush(User.builder()
+				.firstName("Yaw")
+				.lastName("Owusu")
+				.email("yaw.owusu+" + System.nanoTime() + "@example.com")
+				.password("{noop}old")
+				.termsAgreed(true)
+				.enabled(true)
+				.build());
+		user = userRepository.findByUserId(saved.getUserId(), UserAuthProjection.class).orElseThrow();
+		tokens = new SignedPasswordResetTokens(userRepository, SECRET);
+	}
+
+	@Test
+	void redeemsOnceAndDiesWithThePasswordChange() {
+		Instant now = Instant.now();
+		String token = tokens.issue(user, now.plusSeconds(3600));
+		String another = tokens.issue(user, now.plusSeconds(3600));
+
+		PasswordResetTokens.Redemption redemption = tokens.redeem(token, now).orElseThrow();
+		PasswordResetTokens.Redemption concurrent = tokens.redeem(token, now).orElseThrow();
+		assertEquals(user.getUserId(), redemption.getUserId());
+		assertEquals(user.getEmail(), redemption.getEmail());
+
+		assertTrue(redemption.complete("{noop}new"));
+		assertFalse(concurrent.complete("{noop}other"));
+		assertEquals("{noop}new", userRepository.findByUserId(user.getUserId(), UserAuthProjection.class).orElseThrow().getPassword());
+		assertTrue(tokens.redeem(token, now).isEmpty());
+		assertTrue(tokens.redeem(another, now).isEmpty());
+	}
+
+	@Test
+	void signsOverTheCurrentHashEvenWhenHandedAStaleUser() {
+		Instant now = Instant.now();
+		assertEquals(1, userRepository.updatePasswordIfUnchanged(user.getUserId(), user.getPassword(), "{noop}changed-elsewhere"));
+
+		String token = tokens.issue(user, now.plusSeconds(3600));
+
+		PasswordResetTokens.Redemption redemption = tokens.redeem(token, now).orElseThrow();
+		assertTrue(redemption.complete("{noop}new"));
+	}
+
+	@Test
+	void rejectsExpiredTamperedAndForeignTokens() {
+		Instant now = Instant.now();
+		String token = tokens.issue(user, now.plusSeconds(3600));
+
+		assertTrue(tokens.redeem(token, now.plusSeconds(3600)).isEmpty());
+		char last = token.charAt(token.length() - 2);
+		assertTrue(tokens.redeem(token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1), now).isEmpty());
+		assertTrue(tokens.redeem("not a token", now).isEmpty());
+		assertTrue(tokens.redeem(UUID.randomUUID().toString(), now).isEmpty());
+
+		SignedPasswordResetTokens otherKey = new SignedPasswordResetTokens(userRepository, SECRET + "-rotated");
+		assertTrue(otherKey.redeem(token, now).isEmpty());
+		assertThrows(IllegalStateException.class, () -> new SignedPasswordResetTokens(userRepository, "short"));
+	}
+}
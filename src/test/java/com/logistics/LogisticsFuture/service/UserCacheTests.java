@@ -0,0 +1,78 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.projection.UserAuthProjection;
+import com.logistics.LogisticsFuture.repository.EmbeddedPostgresConfiguration;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class UserCacheTests {
+	@Autowired
+	private UserRepository userRepository;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = userRepository.saveAndFlush(User.builder()
+				.firstName("Efua")
+				.lastName("Asante")
+				.email("efua.asante+" + System.nanoTime() + "@example.com")
+				.password("{noop}old")
+				.termsAgreed(true)
+				.enabled(true)
+				.build());
+	}
+
+	@Test
+	void servesRepeatedLookupsFromMemoryUntilEvicted() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		UserCache cache = new UserCache(userRepository, registry, true, 100, Duration.ofMinutes(1));
+
+		assertEquals("{noop}old", cache.findByEmail(user.getEmail()).orElseThrow().getPassword());
+		assertEquals("{noop}old", cache.findByEmail(user.getEmail()).orElseThrow().getPassword());
+		assertEquals("{noop}old", cache.findByUserId(user.getUserId()).orElseThrow().getPassword());
+		assertEquals(1.0, registry.get("cache.gets").tags("cache", "users.by-email", "result", "hit").functionCounter().count());
+
+		userRepository.updatePasswordIfUnchanged(user.getUserId(), "{noop}old", "{noop}new");
+		assertEquals("{noop}old", cache.findByEmail(user.getEmail()).orElseThrow().getPassword());
+
+		// Evicting by id drops the email entry as well
+		cache.evict(user.getUserId(), null);
+		assertEquals("{noop}new", cache.findByEmail(user.getEmail()).orElseThrow().getPassword());
+		assertEquals("{noop}new", cache.findByUserId(user.getUserId()).orElseThrow().getPassword());
+	}
+
+	@Test
+	void neverCachesMissingUsersAndCanBeTurnedOff() {
+		UserCache cache = new UserCache(userRepository, new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+		assertTrue(cache.findByUserId(UUID.randomUUID()).isEmpty());
+		assertTrue(cache.findByEmail("nobody@example.com").isEmpty());
+		assertEquals(0, cache.size());
+
+		UserCache disabled = new UserCache(userRepository, new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(1));
+		UserAuthProjection first = disabled.findByEmail(user.getEmail()).orElseThrow();
+		userRepository.updatePasswordIfUnchanged(user.getUserId(), "{noop}old", "{noop}new");
+		assertEquals("{noop}old", first.getPassword());
+		assertEquals("{noop}new", disabled.findByEmail(user.getEmail()).orElseThrow().getPassword());
+		assertEquals(0, disabled.size());
+	}
+}
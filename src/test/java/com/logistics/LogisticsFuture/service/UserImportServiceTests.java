@@ -0,0 +1,154 @@
+package com.logistics.LogisticsFuture.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.LogisticsFuture.dto.UserImportResponse;
+import com.logistics.LogisticsFuture.dto.UserImportResult;
+import com.logistics.LogisticsFuture.dto.UserImportResult.Status;
+import com.logistics.LogisticsFuture.exceptions.ServiceBusyException;
+import com.logistics.LogisticsFuture.model.User;
+import com.logistics.LogisticsFuture.repository.EmbeddedPostgresConfiguration;
+import com.logistics.LogisticsFuture.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTests {
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private PasswordHashingService hashingService;
+	private UserImportService importService;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		hashingService = spy(new PasswordHashingService(new BCryptPasswordEncoder(4), new SimpleMeterRegistry(), 2, 8));
+		importService = new UserImportService(userRepository, hashingService, new ObjectMapper(),
+				Validation.buildDefaultValidatorFactory().getValidator(), entityManager, transactionManager,
+				new SimpleMeterRegistry(), 2);
+	}
+
+	private static String row(String email, String phoneNumber) {
+		return "{\"firstName\":\"Kofi\",\"lastName\":\"Owusu\",\"email\":\"" + email + "\","
+				+ (phoneNumber == null ? "" : "\"phoneNumber\":\"" + phoneNumber + "\",")
+				+ "\"password\":\"Correct-Horse-42\",\"confirmPassword\":\"Correct-Horse-42\",\"termsAgreed\":true}";
+	}
+
+	private UserImportResponse importBody(String body) throws Exception {
+		return importService.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void importsNewlineDelimitedRowsAndReportsEachOne() throws Exception {
+		userRepository.save(User.builder()
+				.firstName("Ama")
+				.lastName("Mensah")
+				.email("taken@example.com")
+				.password("{noop}secret")
+				.termsAgreed(true)
+				.enabled(true)
+				.build());
+
+		UserImportResponse response = importBody(String.join("\n",
+				row("one@example.com", "+233200000001"),
+				row("taken@example.com", null),
+				row("not-an-email", null),
+				row("one@example.com", null),
+				row("two@example.com", "+233200000001"),
+				row("three@example.com", null)));
+
+		List<Status> statuses = response.getResults().stream().map(UserImportResult::getStatus).toList();
+		assertEquals(List.of(Status.IMPORTED, Status.DUPLICATE, Status.INVALID, Status.DUPLICATE, Status.DUPLICATE, Status.IMPORTED), statuses);
+		assertEquals(List.of(1, 2, 3, 4, 5, 6), response.getResults().stream().map(UserImportResult::getRow).toList());
+		assertEquals(2, response.getImported());
+		assertEquals(4, response.getRejected());
+		assertNotNull(response.getResults().get(0).getUserId());
+		assertEquals(3, userRepository.count());
+	}
+
+	@Test
+	void acceptsAJsonArray() throws Exception {
+		UserImportResponse response = importBody("[" + row("a@example.com", null) + "," + row("b@example.com", null) + ","
+				+ row("c@example.com", null) + "]");
+
+		assertEquals(3, response.getImported());
+		assertTrue(userRepository.findByEmail("c@example.com", User.class).isPresent());
+	}
+
+	@Test
+	void reportsMalformedRecordsAndKeepsImportingAfterThem() throws Exception {
+		UserImportResponse response = importBody(String.join("\n",
+				row("d@example.com", null),
+				"{\"firstName\":\"Kofi\",",
+				"",
+				"{\"email\":\"e@example.com\",\"termsAgreed\":\"maybe\"}",
+				row("f@example.com", null)));
+
+		List<Status> statuses = response.getResults().stream().map(UserImportResult::getStatus).toList();
+		assertEquals(List.of(Status.IMPORTED, Status.INVALID, Status.INVALID, Status.IMPORTED), statuses);
+		assertTrue(response.getResults().get(1).getMessage().startsWith("Malformed JSON"));
+		assertTrue(response.getResults().get(2).getMessage().startsWith("Unreadable record"));
+		assertTrue(userRepository.findByEmail("f@example.com", User.class).isPresent());
+	}
+
+	@Test
+	void reportsTheRowsBeforeASyntaxErrorInAnArray() throws Exception {
+		UserImportResponse response = importBody("[" + row("g@example.com", null) + "," + row("h@example.com", null) + ","
+				+ row("i@example.com", null) + ", {\"firstName\": oops}, " + row("j@example.com", null) + "]");
+
+		List<Status> statuses = response.getResults().stream().map(UserImportResult::getStatus).toList();
+		assertEquals(List.of(Status.IMPORTED, Status.IMPORTED, Status.IMPORTED, Status.INVALID), statuses);
+		assertEquals(3, response.getImported());
+		assertTrue(userRepository.findByEmail("i@example.com", User.class).isPresent());
+		assertTrue(userRepository.findByEmail("j@example.com", User.class).isEmpty());
+	}
+
+	@Test
+	void reportsRowsThatFindTheHashingPoolBusyAsFailed() throws Exception {
+		doThrow(new ServiceBusyException("Too many concurrent password operations, please retry", null))
+				.doCallRealMethod()
+				.when(hashingService).encodeAll(anyList());
+
+		UserImportResponse response = importBody(String.join("\n",
+				row("k@example.com", null), row("l@example.com", null), row("m@example.com", null)));
+
+		List<Status> statuses = response.getResults().stream().map(UserImportResult::getStatus).toList();
+		assertEquals(List.of(Status.FAILED, Status.FAILED, Status.IMPORTED), statuses);
+		assertEquals("Password hashing busy, retry this row", response.getResults().get(0).getMessage());
+		assertTrue(userRepository.findByEmail("k@example.com", User.class).isEmpty());
+		assertTrue(userRepository.findByEmail("m@example.com", User.class).isPresent());
+	}
+}
@@ -0,0 +1,81 @@
+package com.logistics.LogisticsFuture.utility;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenDenylistTests {
+
+	@Test
+	void reportsRevokedTokensUntilTheyExpire() {
+		AccessTokenDenylist denylist = new AccessTokenDenylist(900_000L, 1_000, 0.001, new SimpleMeterRegistry());
+		String revoked = UUID.randomUUID().toString();
+		String alreadyExpired = UUID.randomUUID().toString();
+
+		denylist.revoke(revoked, Instant.now().plusSeconds(60));
+		denylist.revoke(alreadyExpired, Instant.now().minusSeconds(1));
+
+		assertTrue(denylist.isRevoked(revoked));
+		assertFalse(denylist.isRevoked(alreadyExpired));
+		assertFalse(denylist.isRevoked(UUID.randomUUID().toString()));
+		assertFalse(denylist.isRevoked((String) null));
+		assertEquals(1, denylist.size());
+	}
+
+	@Test
+	void bloomFilterStaysNearTheConfiguredFalsePositiveRate() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AccessTokenDenylist denylist = new AccessTokenDenylist(900_000L, 10_000, 0.01, registry);
+		for (int i = 0; i < 10_000; i++) {
+			denylist.revoke(UUID.randomUUID().toString(), Instant.now().plusSeconds(600));
+		}
+
+		int probes = 100_000;
+		for (int i = 0; i < probes; i++) {
+			assertFalse(denylist.isRevoked(UUID.randomUUID().toString()));
+		}
+
+		double measured = registry.get("jwt.denylist.checks").tag("result", "false_positive").counter().count() / probes;
+		assertTrue(measured < 0.02, "measured false-positive rate " + measured);
+		assertTrue(denylist.estimatedFalsePositiveRate() < 0.02);
+		// 10k expected entries at 1% is about 96k bits per generation
+		assertTrue(denylist.bloomBytes() < 25_000);
+	}
+
+	@Test
+	void revokingAllSessionsRejectsTheUsersEarlierAccessTokens() {
+		AccessTokenDenylist denylist = new AccessTokenDenylist(900_000L, 1_000, 0.001, new SimpleMeterRegistry());
+		UUID userId = UUID.randomUUID();
+		Instant expiresAt = Instant.now().plusSeconds(900);
+		TokenClaims earlier = new TokenClaims(userId, TokenClaims.ACCESS, "a@example.com", expiresAt, UuidV7.generate().toString());
+		TokenClaims legacy = new TokenClaims(userId, TokenClaims.ACCESS, "a@example.com", expiresAt, UUID.randomUUID().toString());
+		TokenClaims otherUser = new TokenClaims(UUID.randomUUID(), TokenClaims.ACCESS, "b@example.com", expiresAt,
+				UuidV7.generate().toString());
+
+		denylist.revokeIssuedBefore(userId);
+
+		assertTrue(denylist.isRevoked(earlier));
+		assertTrue(denylist.isRevoked(legacy));
+		assertFalse(denylist.isRevoked(otherUser));
+	}
+
+	@Test
+	void acceptsALoginInTheSameSecondAfterRevokingAllSessions() {
+		AccessTokenDenylist denylist = new AccessTokenDenylist(900_000L, 1_000, 0.001, new SimpleMeterRegistry());
+		UUID userId = UUID.randomUUID();
+		// Both tokens carry the same second-resolution exp, so only the jti tells them apart
+		Instant expiresAt = Instant.now().plusSeconds(900).truncatedTo(ChronoUnit.SECONDS);
+		TokenClaims before = new TokenClaims(userId, TokenClaims.ACCESS, "a@example.com", expiresAt, UuidV7.generate().toString());
+
+		denylist.revokeIssuedBefore(userId);
+		TokenClaims after = new TokenClaims(userId, TokenClaims.ACCESS, "a@example.com", expiresAt, UuidV7.generate().toString());
+
+		assertTrue(denylist.isRevoked(before));
+		assertFalse(denylist.isRevoked(after));
+	}
+}
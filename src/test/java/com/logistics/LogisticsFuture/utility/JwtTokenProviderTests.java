@@ -0,0 +1,113 @@
+package com.logistics.LogisticsFuture.utility;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTests {
+	private static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+
+	private JwtTokenProvider jwtTokenProvider;
+
+	private static JwtTokenProvider provider(String secret, String signingJwk, String additionalJwks, boolean acceptHmac) {
+		JwtTokenProvider provider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(provider, "secret", secret);
+		ReflectionTestUtils.setField(provider, "signingJwk", signingJwk);
+		ReflectionTestUtils.setField(provider, "additionalJwks", additionalJwks);
+		ReflectionTestUtils.setField(provider, "acceptHmac", acceptHmac);
+		ReflectionTestUtils.setField(provider, "accessTokenExpiration", 900_000L);
+		ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 604_800_000L);
+		provider.init();
+		return provider;
+	}
+
+	private static String privateJwk(KeyPair keyPair) {
+		return Jwks.UNSAFE_JSON(Jwks.builder().ecKeyPair(keyPair).build());
+	}
+
+	private static String publicJwkSet(KeyPair keyPair) {
+		return "{\"keys\":[" + Jwks.json(Jwks.builder().ecKeyPair(keyPair).build().toPublicJwk()) + "]}";
+	}
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenProvider = provider(SECRET, null, null, true);
+	}
+
+	@Test
+	void verifiesAccessTokenClaimsInOnePass() {
+		UUID userId = UUID.randomUUID();
+		String token = jwtTokenProvider.generateToken(userId, "driver@example.com");
+
+		TokenClaims claims = jwtTokenProvider.verify(token).orElseThrow();
+
+		assertEquals(userId, claims.userId());
+		assertEquals("driver@example.com", claims.email());
+		assertTrue(claims.isAccessToken());
+		assertNotNull(claims.expiresAt());
+	}
+
+	@Test
+	void refreshTokenIsNotAnAccessToken() {
+		String token = jwtTokenProvider.generateRefreshToken(UUID.randomUUID());
+
+		TokenClaims claims = jwtTokenProvider.verify(token).orElseThrow();
+
+		assertTrue(claims.isRefreshToken());
+		assertFalse(claims.isAccessToken());
+		assertNull(claims.email());
+	}
+
+	@Test
+	void rejectsTamperedAndMalformedTokens() {
+		String token = jwtTokenProvider.generateToken(UUID.randomUUID(), "driver@example.com");
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+		assertEquals(Optional.empty(), jwtTokenProvider.verify(tampered));
+		assertEquals(Optional.empty(), jwtTokenProvider.verify("not-a-jwt"));
+		assertFalse(jwtTokenProvider.validateToken(tampered));
+	}
+
+	@Test
+	void signsWithEs256AndPublishesOnlyThePublicKey() {
+		JwtTokenProvider provider = provider(null, privateJwk(Jwts.SIG.ES256.keyPair().build()), null, false);
+		UUID userId = UUID.randomUUID();
+
+		String token = provider.generateToken(userId, "driver@example.com");
+		String jwks = new String(provider.jwks().json(), StandardCharsets.UTF_8);
+
+		assertEquals(userId, provider.verify(token).orElseThrow().userId());
+		String header = new String(java.util.Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+		assertTrue(header.contains("\"alg\":\"ES256\""));
+		assertTrue(header.contains("\"kid\""));
+		assertTrue(jwks.contains("\"use\":\"sig\""));
+		assertTrue(jwks.contains("\"crv\":\"P-256\""));
+		assertFalse(jwks.contains("\"d\""));
+		assertTrue(provider.jwks().etag().startsWith("\""));
+	}
+
+	@Test
+	void acceptsTheRetiredKeyAndLegacyHmacTokensDuringRotation() {
+		KeyPair oldKey = Jwts.SIG.ES256.keyPair().build();
+		KeyPair newKey = Jwts.SIG.ES256.keyPair().build();
+		String oldToken = provider(null, privateJwk(oldKey), null, false).generateRefreshToken(UUID.randomUUID());
+		String hmacToken = jwtTokenProvider.generateRefreshToken(UUID.randomUUID());
+
+		JwtTokenProvider rotated = provider(SECRET, privateJwk(newKey), publicJwkSet(oldKey), true);
+		JwtTokenProvider hmacRetired = provider(SECRET, privateJwk(newKey), null, false);
+
+		assertTrue(rotated.verify(oldToken).isPresent());
+		assertTrue(rotated.verify(hmacToken).isPresent());
+		assertTrue(hmacRetired.verify(oldToken).isEmpty());
+		assertTrue(hmacRetired.verify(hmacToken).isEmpty());
+	}
+}
@@ -0,0 +1,83 @@
+package com.logistics.LogisticsFuture.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestThrottleTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void allowsABurstThenRefillsAtTheConfiguredRate() {
+		RequestThrottle throttle = new RequestThrottle(5, Duration.ofSeconds(5), 100);
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(throttle.tryAcquire("driver@example.com", 0).isZero());
+		}
+		Duration retryAfter = throttle.tryAcquire("driver@example.com", 0);
+		assertEquals(Duration.ofSeconds(1), retryAfter);
+		assertTrue(throttle.tryAcquire("other@example.com", 0).isZero());
+
+		assertTrue(throttle.tryAcquire("driver@example.com", SECOND).isZero());
+		assertFalse(throttle.tryAcquire("driver@example.com", SECOND).isZero());
+	}
+
+	@Test
+	void concurrentCallersNeverExceedTheBudget() throws Exception {
+		RequestThrottle throttle = new RequestThrottle(100, Duration.ofHours(1), 100);
+		AtomicInteger allowed = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 500; i++) {
+						if (throttle.tryAcquire("10.0.0.1").isZero()) {
+							allowed.incrementAndGet();
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(100, allowed.get());
+	}
+
+	@Test
+	void dropsIdleKeysAndStaysWithinTheKeyBound() {
+		RequestThrottle throttle = new RequestThrottle(5, Duration.ofSeconds(5), 50);
+
+		for (int i = 0; i < 500; i++) {
+			throttle.tryAcquire("10.0.0." + i, 0);
+		}
+		assertTrue(throttle.size() <= 50);
+
+		throttle.evictIdle(10 * SECOND);
+		assertEquals(0, throttle.size());
+	}
+
+	@Test
+	void doesNothingWhenDisabled() {
+		RequestThrottle throttle = new RequestThrottle(0, Duration.ofMinutes(1), 50);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(throttle.tryAcquire("10.0.0.1", 0).isZero());
+		}
+		assertEquals(0, throttle.size());
+	}
+}
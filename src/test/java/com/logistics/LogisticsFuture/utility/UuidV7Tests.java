@@ -0,0 +1,64 @@
+package com.logistics.LogisticsFuture.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Tests {
+
+	@Test
+	void carriesVersionVariantAndTimestamp() {
+		long before = System.currentTimeMillis();
+		UUID uuid = UuidV7.generate();
+
+		assertEquals(7, uuid.version());
+		assertEquals(2, uuid.variant());
+		assertTrue(UuidV7.timestamp(uuid) >= before);
+		assertTrue(UuidV7.timestamp(uuid) <= System.currentTimeMillis() + 1);
+	}
+
+	@Test
+	void staysOrderedWhenTheClockStepsBack() {
+		UUID first = UuidV7.generate();
+		UUID second = UuidV7.generate(System.currentTimeMillis() - 5_000);
+		UUID third = UuidV7.generate();
+
+		assertTrue(first.compareTo(second) < 0);
+		assertTrue(second.compareTo(third) < 0);
+	}
+
+	@Test
+	void idsFromConcurrentThreadsAreUniqueAndIncreasingPerThread() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<UUID>>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					List<UUID> ids = new ArrayList<>();
+					for (int i = 0; i < 10_000; i++) {
+						ids.add(UuidV7.generate());
+					}
+					return ids;
+				}));
+			}
+			List<UUID> all = new ArrayList<>();
+			for (Future<List<UUID>> future : futures) {
+				List<UUID> ids = future.get();
+				for (int i = 1; i < ids.size(); i++) {
+					assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+				}
+				all.addAll(ids);
+			}
+			assertEquals(all.size(), all.stream().distinct().count());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.logistics.LogisticsFuture.utility;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTests {
+
+	private static TokenClaims claimsExpiringAt(Instant expiresAt) {
+		return new TokenClaims(UUID.randomUUID(), TokenClaims.ACCESS, "driver@example.com", expiresAt, UUID.randomUUID().toString());
+	}
+
+	@Test
+	void returnsCachedClaimsUntilTheTokenExpires() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, new SimpleMeterRegistry());
+		TokenClaims live = claimsExpiringAt(Instant.now().plusSeconds(60));
+		TokenClaims expired = claimsExpiringAt(Instant.now().minusSeconds(1));
+
+		cache.put("live-token", live);
+		cache.put("expired-token", expired);
+
+		assertEquals(live, cache.get("live-token").orElseThrow());
+		assertTrue(cache.get("expired-token").isEmpty());
+		assertTrue(cache.get("unknown-token").isEmpty());
+		assertEquals(1, cache.hitCount());
+		assertEquals(2, cache.missCount());
+		assertEquals(1, cache.evictionCount());
+	}
+
+	@Test
+	void staysWithinTheSizeBound() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(true, 50, new SimpleMeterRegistry());
+
+		for (int i = 0; i < 500; i++) {
+			cache.put("token-" + i, claimsExpiringAt(Instant.now().plusSeconds(60)));
+		}
+
+		assertTrue(cache.size() <= 50);
+		assertTrue(cache.evictionCount() > 0);
+	}
+
+	@Test
+	void doesNothingWhenDisabled() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(false, 50, new SimpleMeterRegistry());
+
+		cache.put("token", claimsExpiringAt(Instant.now().plusSeconds(60)));
+
+		assertTrue(cache.get("token").isEmpty());
+		assertEquals(0, cache.size());
+	}
+}